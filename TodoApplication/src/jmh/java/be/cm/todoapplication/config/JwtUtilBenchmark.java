@@ -0,0 +1,86 @@
+package be.cm.todoapplication.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.lang.reflect.Field;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Émission et lecture d'un jeton JWT (login / chaque requête authentifiée).
+ * {@link #legacyRequestAuthentication()} reproduit l'ancien chemin du JwtRequestFilter
+ * (clé et parser reconstruits, trois lectures du jeton) pour comparaison avec
+ * {@link #requestAuthentication()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private UserDetails userDetails;
+    private String token;
+    private String secret;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        jwtUtil = new JwtUtil();
+        // Mêmes valeurs que application.properties, injectées hors contexte Spring
+        secret = "mySecretKey123456789012345678901234567890";
+        setField("secret", secret);
+        setField("jwtExpiration", 86400000);
+        jwtUtil.init();
+
+        userDetails = new User("testuser", "x", List.of());
+        token = jwtUtil.generateToken(userDetails);
+    }
+
+    private void setField(String name, Object value) throws ReflectiveOperationException {
+        Field field = JwtUtil.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtUtil, value);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean requestAuthentication() {
+        Claims claims = jwtUtil.parseClaims(token);
+        return jwtUtil.validateClaims(claims, userDetails);
+    }
+
+    @Benchmark
+    public boolean legacyRequestAuthentication() {
+        // extractUsername puis validateToken (extractUsername + extractExpiration)
+        String username = legacyParse().getSubject();
+        return username.equals(userDetails.getUsername())
+                && legacyParse().getSubject().equals(userDetails.getUsername())
+                && !legacyParse().getExpiration().before(new Date());
+    }
+
+    @SuppressWarnings("deprecation")
+    private Claims legacyParse() {
+        return Jwts.parser()
+                .setSigningKey(Keys.hmacShaKeyFor(secret.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
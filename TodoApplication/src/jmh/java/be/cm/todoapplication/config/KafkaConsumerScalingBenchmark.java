@@ -0,0 +1,181 @@
+package be.cm.todoapplication.config;
+
+import be.cm.todoapplication.dto.messaging.NotificationMessage;
+import be.cm.todoapplication.service.WebSocketNotificationService;
+import be.cm.todoapplication.service.messaging.KafkaMessageListener;
+import be.cm.todoapplication.service.messaging.KafkaRetryRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchAcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Montée en charge des consommateurs : le même volume de notifications est consommé par
+ * handleNotificationBatch avec 1 à N threads (concurrency) sur un topic de N partitions.
+ * Chaque livraison WebSocket simule ~1 ms d'I/O ; avec une partition par thread, le temps
+ * doit baisser à peu près en 1/concurrency. Le débit (records/s) est affiché à chaque itération.
+ * <p>
+ * Chaque itération utilise un topic neuf : les consommateurs ont reçu leurs partitions avant
+ * le début de la mesure, qui couvre l'envoi des records et leur consommation complète.
+ * <p>
+ * mvn -Pbenchmark compile exec:exec -Djmh.args="KafkaConsumerScalingBenchmark"
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KafkaConsumerScalingBenchmark {
+
+    private static final int PARTITIONS = 6;
+    private static final int RECORDS = 3000;
+    private static final long PUSH_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Param({"1", "2", "3", "6"})
+    private int concurrency;
+
+    private EmbeddedKafkaBroker broker;
+    private DefaultKafkaProducerFactory<String, Object> producerFactory;
+    private KafkaTemplate<String, Object> kafkaTemplate;
+    private DefaultKafkaConsumerFactory<String, Object> consumerFactory;
+    private KafkaMessageListener listener;
+    private CountingPushService pushService;
+
+    private ConcurrentMessageListenerContainer<String, Object> container;
+    private String topic;
+    private int iteration;
+    private long startNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Le listener journalise chaque notification : hors mesure
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+
+        broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS)
+                .brokerProperty("group.initial.rebalance.delay.ms", "0");
+        broker.afterPropertiesSet();
+
+        producerFactory = new DefaultKafkaProducerFactory<>(KafkaConfig.producerConfigs(broker.getBrokersAsString(),
+                new KafkaConfig.ProducerTuning(Duration.ofMillis(10), DataSize.ofKilobytes(64), "lz4", 5),
+                KafkaConfig.MessageFormat.BINARY));
+        kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        consumerFactory = new DefaultKafkaConsumerFactory<>(KafkaConfig.consumerConfigs(broker.getBrokersAsString(),
+                new KafkaConfig.ConsumerTuning(DataSize.ofKilobytes(16), Duration.ofMillis(100), 500)));
+
+        pushService = new CountingPushService();
+        // Aucun record illisible : le producteur des dead letters n'est jamais créé
+        KafkaTemplate<String, byte[]> deadLetterTemplate =
+                new KafkaTemplate<>(new KafkaConfig().deadLetterProducerFactory(producerFactory));
+        listener = new KafkaMessageListener(pushService, new KafkaRetryRouter(kafkaTemplate, deadLetterTemplate,
+                new SimpleMeterRegistry(), Duration.ofSeconds(1), 5));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        producerFactory.destroy();
+        broker.destroy();
+    }
+
+    @Setup(Level.Iteration)
+    public void startConsumers() {
+        topic = "scaling-" + concurrency + "-" + iteration++;
+        broker.addTopics(new NewTopic(topic, PARTITIONS, (short) 1));
+
+        ContainerProperties properties = new ContainerProperties(topic);
+        properties.setGroupId(topic + "-group");
+        properties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        properties.setMessageListener(
+                (BatchAcknowledgingMessageListener<String, Object>) listener::handleNotificationBatch);
+
+        container = new ConcurrentMessageListenerContainer<>(consumerFactory, properties);
+        container.setConcurrency(concurrency);
+        container.start();
+        waitForBalancedAssignment();
+
+        pushService.expect(RECORDS);
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Tant qu'un thread n'a pas encore rejoint le groupe, un autre peut détenir toutes les partitions :
+     * on attend que chaque thread ait les siennes, sinon un rééquilibrage tomberait dans la mesure
+     */
+    private void waitForBalancedAssignment() {
+        ContainerTestUtils.waitForAssignment(container, PARTITIONS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (!container.getContainers().stream().allMatch(child -> !child.getAssignedPartitions().isEmpty())) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Partitions non réparties entre les " + concurrency + " threads");
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopConsumers() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%n  concurrency %d: %d records en %.2f s, %.0f records/s%n",
+                concurrency, RECORDS, seconds, RECORDS / seconds);
+        container.stop();
+    }
+
+    @Benchmark
+    public void consumeNotifications() throws InterruptedException {
+        // Répartition égale sur les partitions, notifications toutes distinctes (pas de dédoublonnage)
+        for (int i = 0; i < RECORDS; i++) {
+            NotificationMessage notification = NotificationMessage.create("user-" + (i % 60),
+                    NotificationMessage.NotificationType.PDF_PROCESSING_COMPLETED,
+                    "PDF prêt", "Fichier todos-" + i + ".pdf généré", Map.of("taskId", "task-" + i));
+            kafkaTemplate.send(topic, i % PARTITIONS, notification.getUserId(), notification);
+        }
+        kafkaTemplate.flush();
+
+        if (!pushService.await(60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Records non consommés après 60 s sur " + topic);
+        }
+    }
+
+    /**
+     * Remplace l'envoi STOMP : une attente fixe par notification et un compteur des livraisons
+     */
+    static class CountingPushService extends WebSocketNotificationService {
+
+        private volatile CountDownLatch delivered = new CountDownLatch(0);
+
+        CountingPushService() {
+            super(null);
+        }
+
+        void expect(int count) {
+            delivered = new CountDownLatch(count);
+        }
+
+        boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            return delivered.await(timeout, unit);
+        }
+
+        @Override
+        public void sendNotificationToUser(String userId, NotificationMessage notification) {
+            LockSupport.parkNanos(PUSH_NANOS);
+            delivered.countDown();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package be.cm.todoapplication.config;
+
+import be.cm.todoapplication.dto.messaging.NotificationMessage;
+import be.cm.todoapplication.dto.messaging.PdfProcessingMessage;
+import be.cm.todoapplication.dto.messaging.TodoSyncMessage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit du producteur de KafkaConfig contre un broker embarqué (KRaft, 3 partitions par topic).
+ * Une invocation envoie une rafale d'étapes de sync (notification, progression du sync, progression PDF)
+ * et attend tous les acquittements : le score est en messages/s. La latence envoi → acquittement
+ * (p50/p99/max) est affichée à la fin de chaque itération.
+ * <p>
+ * mvn -Pbenchmark compile exec:exec -Djmh.args="KafkaProducerBenchmark -p compressionType=lz4,zstd"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KafkaProducerBenchmark {
+
+    private static final int STEPS = 100;
+    private static final int MESSAGES_PER_STEP = 3;
+    private static final int BURST = STEPS * MESSAGES_PER_STEP;
+
+    @Param({"0", "10"})
+    private long lingerMs;
+
+    @Param({"65536"})
+    private long batchSize;
+
+    @Param({"none", "lz4", "zstd"})
+    private String compressionType;
+
+    @Param({"5"})
+    private int maxInFlight;
+
+    @Param({"BINARY"})
+    private KafkaConfig.MessageFormat format;
+
+    private EmbeddedKafkaBroker broker;
+    private DefaultKafkaProducerFactory<String, Object> producerFactory;
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    private NotificationMessage notification;
+    private TodoSyncMessage syncProgress;
+    private PdfProcessingMessage pdfProgress;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        broker = new EmbeddedKafkaKraftBroker(1, 3,
+                KafkaConfig.NOTIFICATION_TOPIC, KafkaConfig.TODO_SYNC_TOPIC, KafkaConfig.PDF_PROCESSING_TOPIC);
+        broker.afterPropertiesSet();
+
+        KafkaConfig.ProducerTuning tuning = new KafkaConfig.ProducerTuning(
+                Duration.ofMillis(lingerMs), DataSize.ofBytes(batchSize), compressionType, maxInFlight);
+        producerFactory = new DefaultKafkaProducerFactory<>(
+                KafkaConfig.producerConfigs(broker.getBrokersAsString(), tuning, format));
+        kafkaTemplate = new KafkaTemplate<>(producerFactory);
+
+        notification = NotificationMessage.create("testuser", NotificationMessage.NotificationType.SYSTEM_NOTIFICATION,
+                "Synchronisation en cours", "Synchronisation des todos: 1500/5000",
+                Map.of("batchId", "3f1c2a9e-batch", "processed", 1500, "total", 5000));
+        syncProgress = new TodoSyncMessage("testuser", TodoSyncMessage.SyncAction.FETCH_FROM_JSONPLACEHOLDER,
+                "3f1c2a9e-batch", 5000, 1500, TodoSyncMessage.SyncStatus.IN_PROGRESS, null,
+                LocalDateTime.now());
+        pdfProgress = PdfProcessingMessage.createProgress("7d2e-task", "testuser", "all", "todos.pdf",
+                "./pdf-storage/todos.pdf", 1500, 5000, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        producerFactory.destroy();
+        broker.destroy();
+    }
+
+    /**
+     * Latences d'une itération, en nanosecondes. Chaque envoi écrit sa propre case :
+     * les callbacks du thread réseau du producteur ne se partagent aucun indice.
+     */
+    @State(Scope.Thread)
+    public static class Latencies {
+
+        private long[] samples = new long[BURST * 64];
+        private int count;
+
+        int reserve(int size) {
+            if (count + size > samples.length) {
+                samples = Arrays.copyOf(samples, Math.max(samples.length * 2, count + size));
+            }
+            int base = count;
+            count += size;
+            return base;
+        }
+
+        @TearDown(Level.Iteration)
+        public void report() {
+            if (count == 0) {
+                return;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            System.out.printf("%n  latence envoi->ack (%d msgs): p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    count, percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+            count = 0;
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            return sorted[(int) Math.ceil(quantile * sorted.length) - 1] / 1e6;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void sendSyncBurst(Latencies latencies) throws Exception {
+        int base = latencies.reserve(BURST);
+        CompletableFuture<?>[] acks = new CompletableFuture<?>[BURST];
+        for (int step = 0; step < STEPS; step++) {
+            int slot = step * MESSAGES_PER_STEP;
+            acks[slot] = send(KafkaConfig.NOTIFICATION_TOPIC, notification.getUserId(), notification,
+                    latencies, base + slot);
+            acks[slot + 1] = send(KafkaConfig.TODO_SYNC_TOPIC, syncProgress.getUserId(), syncProgress,
+                    latencies, base + slot + 1);
+            acks[slot + 2] = send(KafkaConfig.PDF_PROCESSING_TOPIC, pdfProgress.getTaskId(), pdfProgress,
+                    latencies, base + slot + 2);
+        }
+        CompletableFuture.allOf(acks).get(30, TimeUnit.SECONDS);
+    }
+
+    private CompletableFuture<?> send(String topic, String key, Object message, Latencies latencies, int slot) {
+        long start = System.nanoTime();
+        return kafkaTemplate.send(topic, key, message)
+                .whenComplete((result, error) -> latencies.samples[slot] = System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,49 @@
+package be.cm.todoapplication.dto.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation JSON d'une notification, avec le même ObjectMapper que le JsonSerializer Kafka
+ * (JavaTimeModule enregistré)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificationMessageBenchmark {
+
+    private ObjectMapper objectMapper;
+    private NotificationMessage notification;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = JacksonUtils.enhancedObjectMapper();
+        notification = NotificationMessage.create(
+                "testuser",
+                NotificationMessage.NotificationType.TODO_UPDATED,
+                "Tâche mise à jour",
+                "La tâche 'Préparer la démo' a été modifiée",
+                Map.of("todoId", 42L, "completed", false)
+        );
+        json = objectMapper.writeValueAsBytes(notification);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(notification);
+    }
+
+    @Benchmark
+    public NotificationMessage deserialize() throws java.io.IOException {
+        return objectMapper.readValue(json, NotificationMessage.class);
+    }
+}
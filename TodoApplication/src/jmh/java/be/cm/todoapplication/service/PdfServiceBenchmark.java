@@ -0,0 +1,125 @@
+package be.cm.todoapplication.service;
+
+import be.cm.todoapplication.dto.TodoDTO;
+import be.cm.todoapplication.dto.UserDTO;
+import be.cm.todoapplication.model.Todo;
+import be.cm.todoapplication.model.User;
+import com.itextpdf.text.DocumentException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Générateurs de PdfService : temps et allocation par document (à lancer avec -prof gc).
+ * Les générateurs de listes sont mesurés pour 1, 100 et 10 000 lignes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PdfServiceBenchmark {
+
+    private PdfService pdfService;
+    private TodoDTO todoDTO;
+    private Todo todo;
+
+    @Setup
+    public void setUp() {
+        pdfService = new PdfService(null, null);
+
+        LocalDateTime now = LocalDateTime.now();
+        todoDTO = TodoDTO.builder()
+                .id(42L)
+                .title("Préparer la démo")
+                .description("Rassembler les captures et relire les slides")
+                .completed(false)
+                .userId(1L)
+                .username("testuser")
+                .createdAt(now)
+                .createdBy("testuser")
+                .updatedAt(now)
+                .updatedBy("testuser")
+                .build();
+
+        User user = User.builder().id(1L).username("testuser").email("test@todoapp.com").password("x").build();
+        todo = Todo.builder().id(42L).title("Préparer la démo").completed(false).user(user).createdAt(now).build();
+    }
+
+    @Benchmark
+    public byte[] todoPdfFromDTO() throws DocumentException {
+        return pdfService.generateTodoPdfFromDTO(todoDTO);
+    }
+
+    @Benchmark
+    public byte[] signedTodoPdfFromDTO() throws DocumentException {
+        return pdfService.generateTodoPdfWithSignatureFromDTO(todoDTO, "testuser");
+    }
+
+    @Benchmark
+    public byte[] todoPdf() throws DocumentException, IOException {
+        return pdfService.generateTodoPdf(todo);
+    }
+
+    @Benchmark
+    public byte[] usersListPdf(Rows rows) throws DocumentException {
+        return pdfService.generateUsersListPdf(rows.users);
+    }
+
+    /**
+     * Rendu en flux du PDF groupé (processLargePdfAsync sans l'écriture disque ni Kafka)
+     */
+    @Benchmark
+    public long bulkTodosPdf(Rows rows) throws DocumentException {
+        return pdfService.writeBulkTodosPdf(rows.todoChunks, OutputStream.nullOutputStream(), (rendered, pages) -> { });
+    }
+
+    @State(Scope.Benchmark)
+    public static class Rows {
+
+        @Param({"1", "100", "10000"})
+        public int size;
+
+        List<UserDTO> users;
+        List<List<TodoDTO>> todoChunks;
+
+        @Setup
+        public void setUp() {
+            LocalDateTime now = LocalDateTime.now();
+            users = new ArrayList<>(size);
+            todoChunks = new ArrayList<>();
+            List<TodoDTO> chunk = new ArrayList<>(PdfService.BULK_PDF_CHUNK_SIZE);
+            for (int i = 1; i <= size; i++) {
+                UserDTO user = new UserDTO();
+                user.setId((long) i);
+                user.setName("Utilisateur " + i);
+                user.setUsername("user" + i);
+                user.setEmail("user" + i + "@todoapp.com");
+                user.setPhone("+32 470 00 00 00");
+                users.add(user);
+
+                chunk.add(TodoDTO.builder()
+                        .id((long) i)
+                        .title("Tâche numéro " + i)
+                        .completed(i % 3 == 0)
+                        .userId(1L)
+                        .username("testuser")
+                        .createdAt(now)
+                        .build());
+                if (chunk.size() == PdfService.BULK_PDF_CHUNK_SIZE) {
+                    todoChunks.add(chunk);
+                    chunk = new ArrayList<>(PdfService.BULK_PDF_CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                todoChunks.add(chunk);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package be.cm.todoapplication.service;
+
+import be.cm.todoapplication.dto.TodoDTO;
+import be.cm.todoapplication.model.Todo;
+import be.cm.todoapplication.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion entité -> DTO appelée pour chaque ligne des listes paginées
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoServiceBenchmark {
+
+    private Todo todo;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        User user = User.builder().id(1L).username("testuser").email("test@todoapp.com").password("x").build();
+        todo = Todo.builder()
+                .id(42L)
+                .version(3L)
+                .title("Préparer la démo")
+                .description("Rassembler les captures et relire les slides")
+                .completed(false)
+                .user(user)
+                .createdAt(now)
+                .createdBy("testuser")
+                .updatedAt(now)
+                .updatedBy("testuser")
+                .build();
+    }
+
+    @Benchmark
+    public TodoDTO convertToDTO() {
+        return TodoMapper.toDTO(todo);
+    }
+}
@@ -0,0 +1,123 @@
+package be.cm.todoapplication.service.messaging;
+
+import be.cm.todoapplication.config.KafkaConfig;
+import be.cm.todoapplication.dto.messaging.NotificationMessage;
+import be.cm.todoapplication.dto.messaging.PdfProcessingMessage;
+import be.cm.todoapplication.dto.messaging.TodoSyncMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodage/décodage des messages Kafka : JSON (JsonSerializer, lu en String puis converti comme
+ * avant CompactMessageDeserializer, ou lu directement) contre CompactMessageCodec.
+ * La taille par message (valeur + entêtes de type) est affichée au démarrage de chaque essai.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageCodecBenchmark {
+
+    @Param({"notification", "pdf", "sync"})
+    private String message;
+
+    private Object payload;
+    private String topic;
+    private Class<?> type;
+
+    private JsonSerializer<Object> jsonSerializer;
+    private CompactMessageSerializer compactSerializer;
+    private CompactMessageDeserializer deserializer;
+    private ObjectMapper objectMapper;
+
+    private RecordHeaders jsonHeaders;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        switch (message) {
+            case "notification" -> {
+                payload = NotificationMessage.create("testuser", NotificationMessage.NotificationType.SYNC_COMPLETED,
+                        "Synchronisation terminée", "Synchronisé 200 todos",
+                        Map.of("batchId", "3f1c2a9e-7b4d-4c1e-9a8f-2d6b5e0c1a3b", "total", 200));
+                topic = KafkaConfig.NOTIFICATION_TOPIC;
+            }
+            case "pdf" -> {
+                payload = PdfProcessingMessage.createProgress("7d2e4b1c-5a3f-4e2d-8c1b-9f0a6e5d4c3b", "testuser",
+                        "all", "todos.pdf", "./pdf-storage/todos.pdf", 1500, 5000, 42);
+                topic = KafkaConfig.PDF_PROCESSING_TOPIC;
+            }
+            default -> {
+                payload = new TodoSyncMessage("admin", TodoSyncMessage.SyncAction.FETCH_FROM_JSONPLACEHOLDER,
+                        "3f1c2a9e-7b4d-4c1e-9a8f-2d6b5e0c1a3b", 5000, 1500,
+                        TodoSyncMessage.SyncStatus.IN_PROGRESS, null, now);
+                topic = KafkaConfig.TODO_SYNC_TOPIC;
+            }
+        }
+        type = payload.getClass();
+
+        jsonSerializer = new JsonSerializer<>();
+        compactSerializer = new CompactMessageSerializer();
+        deserializer = new CompactMessageDeserializer();
+        objectMapper = JacksonUtils.enhancedObjectMapper();
+
+        jsonHeaders = new RecordHeaders();
+        json = jsonSerializer.serialize(topic, jsonHeaders, payload);
+        binary = compactSerializer.serialize(topic, payload);
+
+        int headerBytes = 0;
+        for (Header header : jsonHeaders) {
+            headerBytes += header.key().length() + header.value().length;
+        }
+        System.out.printf("%n  %s: json %d octets (+%d d'entêtes), binaire %d octets%n",
+                message, json.length, headerBytes, binary.length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jsonSerializer.close();
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return jsonSerializer.serialize(topic, new RecordHeaders(), payload);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return compactSerializer.serialize(topic, payload);
+    }
+
+    /**
+     * Ancien chemin consommateur : StringDeserializer puis JsonMessageConverter
+     */
+    @Benchmark
+    public Object decodeJsonViaString() throws IOException {
+        String value = new String(json, StandardCharsets.UTF_8);
+        return objectMapper.readValue(value, type);
+    }
+
+    @Benchmark
+    public Object decodeJson() {
+        return deserializer.deserialize(topic, jsonHeaders, json);
+    }
+
+    @Benchmark
+    public Object decodeBinary() {
+        return deserializer.deserialize(topic, jsonHeaders, binary);
+    }
+}
@@ -1,13 +1,24 @@
 package be.cm.todoapplication.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
-import org.apache.hc.client5.http.io.HttpClientConnectionManager;
 import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
 import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.core5.pool.PoolStats;
 import org.apache.hc.core5.ssl.SSLContextBuilder;
 import org.apache.hc.core5.ssl.TrustStrategy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
@@ -18,12 +29,24 @@ import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.function.ToDoubleFunction;
 
 @Configuration
 public class AppConfiguration {
 
-    @Bean
-    public RestTemplate restTemplate() throws NoSuchAlgorithmException, KeyStoreException, KeyManagementException {
+    /**
+     * Pool des connexions sortantes (sync JSONPlaceholder). Les délais bornent le temps
+     * qu'un thread de todoSyncExecutor peut passer bloqué sur une source lente.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpConnectionManager(
+            @Value("${app.http.client.max-total:50}") int maxTotal,
+            @Value("${app.http.client.max-per-route:10}") int maxPerRoute,
+            @Value("${app.http.client.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${app.http.client.socket-timeout:30s}") Duration socketTimeout,
+            @Value("${app.http.client.validate-after-inactivity:10s}") Duration validateAfterInactivity)
+            throws NoSuchAlgorithmException, KeyStoreException, KeyManagementException {
         final TrustStrategy acceptingTrustStrategy = (X509Certificate[] chain, String authType) -> true;
 
         SSLContext sslContext = new SSLContextBuilder()
@@ -32,12 +55,37 @@ public class AppConfiguration {
 
         SSLConnectionSocketFactory csf = new SSLConnectionSocketFactory(sslContext, new NoopHostnameVerifier());
 
-        HttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+        return PoolingHttpClientConnectionManagerBuilder.create()
                 .setSSLSocketFactory(csf)
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(socketTimeout))
+                        .setValidateAfterInactivity(TimeValue.of(validateAfterInactivity))
+                        .build())
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(
+            PoolingHttpClientConnectionManager httpConnectionManager,
+            @Value("${app.http.client.connection-request-timeout:10s}") Duration connectionRequestTimeout,
+            @Value("${app.http.client.response-timeout:30s}") Duration responseTimeout,
+            @Value("${app.http.client.keep-alive:30s}") Duration keepAlive,
+            @Value("${app.http.client.idle-eviction:60s}") Duration idleEviction) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                .setResponseTimeout(Timeout.of(responseTimeout))
                 .build();
 
+        // gzip/deflate : Accept-Encoding et décompression restent activés (comportement par défaut du client)
         CloseableHttpClient httpClient = HttpClients.custom()
-                .setConnectionManager(connectionManager)
+                .setConnectionManager(httpConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(cappedKeepAlive(TimeValue.of(keepAlive)))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction))
                 .build();
 
         HttpComponentsClientHttpRequestFactory requestFactory =
@@ -46,4 +94,35 @@ public class AppConfiguration {
         requestFactory.setHttpClient(httpClient);
         return new RestTemplate(requestFactory);
     }
+
+    /**
+     * Durée du Keep-Alive annoncée par le serveur, bornée par {@code max} ; {@code max} si le serveur n'annonce rien
+     */
+    static ConnectionKeepAliveStrategy cappedKeepAlive(TimeValue max) {
+        DefaultConnectionKeepAliveStrategy announced = DefaultConnectionKeepAliveStrategy.INSTANCE;
+        return (response, context) -> {
+            TimeValue duration = announced.getKeepAliveDuration(response, context);
+            return TimeValue.isPositive(duration) && duration.compareTo(max) < 0 ? duration : max;
+        };
+    }
+
+    /**
+     * Jauges du pool HTTP : connexions prêtées, disponibles, en attente et maximum
+     */
+    @Bean
+    public MeterBinder httpClientPoolMetrics(PoolingHttpClientConnectionManager httpConnectionManager) {
+        return registry -> {
+            poolGauge(registry, "http.client.pool.leased", httpConnectionManager, PoolStats::getLeased);
+            poolGauge(registry, "http.client.pool.available", httpConnectionManager, PoolStats::getAvailable);
+            poolGauge(registry, "http.client.pool.pending", httpConnectionManager, PoolStats::getPending);
+            poolGauge(registry, "http.client.pool.max", httpConnectionManager, PoolStats::getMax);
+        };
+    }
+
+    private static void poolGauge(MeterRegistry registry, String name,
+                                  PoolingHttpClientConnectionManager manager, ToDoubleFunction<PoolStats> stat) {
+        Gauge.builder(name, manager, pool -> stat.applyAsDouble(pool.getTotalStats()))
+                .description("Pool de connexions HTTP sortantes")
+                .register(registry);
+    }
 }
@@ -1,11 +1,13 @@
 package be.cm.todoapplication.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
@@ -33,6 +35,23 @@ public class AsyncConfig {
         return executor;
     }
 
+    /**
+     * Workers des partitions d'un sync (une partition = un groupe d'utilisateurs).
+     * Pool séparé de todoSyncExecutor pour qu'un sync n'attende jamais ses propres partitions
+     * dans la même file ; file pleine = la partition s'exécute sur le thread appelant.
+     */
+    @Bean(name = "todoSyncPartitionExecutor")
+    public Executor todoSyncPartitionExecutor(@Value("${app.sync.partitions:3}") int partitions) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(partitions);
+        executor.setMaxPoolSize(partitions);
+        executor.setQueueCapacity(partitions * 2);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("Todo-Sync-Partition-");
+        executor.initialize();
+        return executor;
+    }
+
     @Bean(name = "notificationExecutor")
     public Executor notificationExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -0,0 +1,24 @@
+package be.cm.todoapplication.config;
+
+import be.cm.todoapplication.model.User;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Principal construit à partir des claims du JWT, sans lecture de la table users.
+ * Authentication.getName() et Principal.getName() retournent le username, comme avec l'entité User.
+ */
+public record AuthenticatedUser(Long id, String username, User.Role role) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+}
@@ -1,5 +1,7 @@
 package be.cm.todoapplication.config;
 
+import be.cm.todoapplication.service.UserStatusCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,6 +24,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final UserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final UserStatusCache userStatusCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -31,27 +34,41 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         final String requestTokenHeader = request.getHeader("Authorization");
 
         String username = null;
-        String jwtToken = null;
+        Claims claims = null;
 
         if (StringUtils.hasText(requestTokenHeader) && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
+            String jwtToken = requestTokenHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwtToken);
+                // Lecture unique : signature et expiration vérifiées ici
+                claims = jwtUtil.parseClaims(jwtToken);
+                username = claims.getSubject();
             } catch (Exception e) {
                 logger.error("Unable to get JWT Token", e);
             }
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-
-            if (jwtUtil.validateToken(jwtToken, userDetails)) {
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
-                usernamePasswordAuthenticationToken
-                        .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+            AuthenticatedUser principal = jwtUtil.toAuthenticatedUser(claims);
+            UsernamePasswordAuthenticationToken authentication = null;
+
+            if (principal != null) {
+                // Jeton avec uid/role : seul le statut du compte est vérifié (en cache)
+                if (userStatusCache.isEnabled(principal.id())) {
+                    authentication = new UsernamePasswordAuthenticationToken(
+                            principal, null, principal.getAuthorities());
+                }
+            } else {
+                // Ancien jeton sans claims : chargement de l'utilisateur comme avant
+                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                if (jwtUtil.validateClaims(claims, userDetails)) {
+                    authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                }
+            }
+
+            if (authentication != null) {
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         }
         filterChain.doFilter(request, response);
@@ -1,8 +1,13 @@
 package be.cm.todoapplication.config;
 
+import be.cm.todoapplication.service.messaging.CompactMessageDeserializer;
+import be.cm.todoapplication.service.messaging.CompactMessageSerializer;
+import be.cm.todoapplication.service.messaging.KafkaRetryRouter;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,13 +16,19 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
-import org.springframework.kafka.support.converter.JsonMessageConverter;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Configuration
 @EnableKafka
@@ -31,61 +42,280 @@ public class KafkaConfig {
     public static final String TODO_SYNC_TOPIC = "todo-sync";
     public static final String NOTIFICATION_TOPIC = "notifications";
 
+    public static final String BATCH_LISTENER_FACTORY = "batchKafkaListenerContainerFactory";
+    public static final String DEAD_LETTER_TEMPLATE = "deadLetterKafkaTemplate";
+
+    // Retry non bloquant : un record en échec passe par <topic>-retry-0..n-1, puis <topic>-dlt
+    public static final int RETRY_ATTEMPTS = 3;
+    public static final String RETRY_TOPIC_SUFFIX = "-retry-";
+    public static final String DEAD_LETTER_TOPIC_SUFFIX = "-dlt";
+    private static final List<String> MAIN_TOPICS = List.of(PDF_PROCESSING_TOPIC, TODO_SYNC_TOPIC, NOTIFICATION_TOPIC);
+    // Intervalle entre deux livraisons d'un record dont la republication a échoué
+    private static final long REDELIVERY_INTERVAL_MS = 1000;
+
+    /**
+     * Producteur partagé par tous les envois. Pendant un sync, les messages partent par rafales :
+     * le linger et la compression les regroupent en quelques requêtes au lieu d'une par message.
+     */
     @Bean
-    public ProducerFactory<String, Object> producerFactory() {
+    public ProducerFactory<String, Object> producerFactory(
+            @Value("${app.kafka.producer.linger:10ms}") Duration linger,
+            @Value("${app.kafka.producer.batch-size:64KB}") DataSize batchSize,
+            @Value("${app.kafka.producer.compression-type:lz4}") String compressionType,
+            @Value("${app.kafka.producer.max-in-flight:5}") int maxInFlight,
+            @Value("${app.kafka.codec:json}") MessageFormat format) {
+        ProducerTuning tuning = new ProducerTuning(linger, batchSize, compressionType, maxInFlight);
+        return new DefaultKafkaProducerFactory<>(producerConfigs(bootstrapServers, tuning, format));
+    }
+
+    /**
+     * Configuration du producteur, partagée avec KafkaProducerBenchmark
+     */
+    public static Map<String, Object> producerConfigs(String bootstrapServers, ProducerTuning tuning,
+                                                      MessageFormat format) {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, format.serializer());
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, (int) tuning.linger().toMillis());
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, (int) tuning.batchSize().toBytes());
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, tuning.compressionType());
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, tuning.maxInFlight());
+        return configProps;
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> kafkaTemplate(ProducerFactory<String, Object> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
     }
 
+    /**
+     * Producteur des records illisibles : leurs octets sont republiés tels quels sur le dead letter topic,
+     * avec la configuration du producteur partagé
+     */
     @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public ProducerFactory<String, byte[]> deadLetterProducerFactory(ProducerFactory<String, Object> producerFactory) {
+        return new DefaultKafkaProducerFactory<>(producerFactory.getConfigurationProperties(),
+                new StringSerializer(), new ByteArraySerializer());
+    }
+
+    @Bean(name = DEAD_LETTER_TEMPLATE)
+    public KafkaTemplate<String, byte[]> deadLetterKafkaTemplate(ProducerFactory<String, byte[]> deadLetterProducerFactory) {
+        return new KafkaTemplate<>(deadLetterProducerFactory);
     }
 
+    /**
+     * Consommateur partagé par les listeners. En lot, un poll attend jusqu'à fetch-max-wait
+     * qu'au moins fetch-min-bytes soient disponibles : moins de fetchs presque vides pendant une rafale.
+     */
     @Bean
-    public ConsumerFactory<String, Object> consumerFactory() {
+    public ConsumerFactory<String, Object> consumerFactory(
+            @Value("${app.kafka.consumer.fetch-min-bytes:16KB}") DataSize fetchMinBytes,
+            @Value("${app.kafka.consumer.fetch-max-wait:100ms}") Duration fetchMaxWait,
+            @Value("${app.kafka.consumer.max-poll-records:500}") int maxPollRecords) {
+        ConsumerTuning tuning = new ConsumerTuning(fetchMinBytes, fetchMaxWait, maxPollRecords);
+        return new DefaultKafkaConsumerFactory<>(consumerConfigs(bootstrapServers, tuning));
+    }
+
+    /**
+     * Configuration du consommateur, partagée avec KafkaConsumerScalingBenchmark
+     */
+    public static Map<String, Object> consumerConfigs(String bootstrapServers, ConsumerTuning tuning) {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "todo-app");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        
-        // Use ErrorHandlingDeserializer for the value, but delegate to StringDeserializer
-        // Then we'll use a RecordMessageConverter (JsonMessageConverter) to handle the actual JSON conversion
+
+        // Les records sont décodés une seule fois, en binaire ou en JSON selon leur premier octet :
+        // le listener reçoit directement le DTO, sans conversion de message
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, StringDeserializer.class);
-        
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, CompactMessageDeserializer.class);
+
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        return new DefaultKafkaConsumerFactory<>(props);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, (int) tuning.fetchMinBytes().toBytes());
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, (int) tuning.fetchMaxWait().toMillis());
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, tuning.maxPollRecords());
+        return props;
     }
 
+    /**
+     * Listeners unitaires. Un record illisible n'atteint pas le listener : il part directement sur le
+     * dead letter topic. Un record dont la republication a échoué est relivré jusqu'à être republié.
+     */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory, KafkaRetryRouter retryRouter) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(retryRouter::rejectUnreadable,
+                new FixedBackOff(REDELIVERY_INTERVAL_MS, FixedBackOff.UNLIMITED_ATTEMPTS)));
+        return factory;
+    }
+
+    /**
+     * Listeners par lot : un poll entier est remis au listener et acquitté en un seul commit
+     */
+    @Bean(name = BATCH_LISTENER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory) {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
-        // Use JsonMessageConverter to infer the type from the listener method signature
-        factory.setRecordMessageConverter(new JsonMessageConverter());
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
         return factory;
     }
 
-    // Topic Beans
+    // Topic Beans : un topic existant avec moins de partitions est étendu au démarrage (jamais réduit)
     @Bean
-    public NewTopic pdfProcessingTopic() {
-        return new NewTopic(PDF_PROCESSING_TOPIC, 3, (short) 1);
+    public NewTopic pdfProcessingTopic(
+            @Value("${app.kafka.topics.pdf-processing.partitions:3}") int partitions,
+            @Value("${app.kafka.topics.replication-factor:1}") short replicationFactor) {
+        return new NewTopic(PDF_PROCESSING_TOPIC, partitions, replicationFactor);
     }
 
     @Bean
-    public NewTopic todoSyncTopic() {
-        return new NewTopic(TODO_SYNC_TOPIC, 3, (short) 1);
+    public NewTopic todoSyncTopic(
+            @Value("${app.kafka.topics.todo-sync.partitions:3}") int partitions,
+            @Value("${app.kafka.topics.replication-factor:1}") short replicationFactor) {
+        return new NewTopic(TODO_SYNC_TOPIC, partitions, replicationFactor);
     }
 
     @Bean
-    public NewTopic notificationTopic() {
-        return new NewTopic(NOTIFICATION_TOPIC, 3, (short) 1);
+    public NewTopic notificationTopic(
+            @Value("${app.kafka.topics.notifications.partitions:3}") int partitions,
+            @Value("${app.kafka.topics.replication-factor:1}") short replicationFactor) {
+        return new NewTopic(NOTIFICATION_TOPIC, partitions, replicationFactor);
+    }
+
+    /**
+     * Topics de retry et de dead letter des trois topics applicatifs. Peu de trafic : une partition suffit
+     */
+    @Bean
+    public KafkaAdmin.NewTopics retryAndDeadLetterTopics(
+            @Value("${app.kafka.retry.partitions:1}") int partitions,
+            @Value("${app.kafka.topics.replication-factor:1}") short replicationFactor) {
+        return new KafkaAdmin.NewTopics(retryAndDeadLetterTopicList(partitions, replicationFactor).toArray(NewTopic[]::new));
+    }
+
+    static List<NewTopic> retryAndDeadLetterTopicList(int partitions, short replicationFactor) {
+        List<NewTopic> topics = new ArrayList<>();
+        for (String topic : MAIN_TOPICS) {
+            for (int stage = 0; stage < RETRY_ATTEMPTS; stage++) {
+                topics.add(new NewTopic(retryTopic(topic, stage), partitions, replicationFactor));
+            }
+            topics.add(new NewTopic(deadLetterTopic(topic), partitions, replicationFactor));
+        }
+        return topics;
+    }
+
+    public static String retryTopic(String topic, int stage) {
+        return topic + RETRY_TOPIC_SUFFIX + stage;
+    }
+
+    /**
+     * Topics d'une étape de retry, un par topic applicatif (SpEL des listeners de retry)
+     */
+    public static String[] retryTopics(int stage) {
+        return MAIN_TOPICS.stream().map(topic -> retryTopic(topic, stage)).toArray(String[]::new);
+    }
+
+    public static String deadLetterTopic(String topic) {
+        return topic + DEAD_LETTER_TOPIC_SUFFIX;
+    }
+
+    /**
+     * @return l'étape de retry d'un topic de retry, -1 pour un topic applicatif
+     */
+    public static int retryStage(String topic) {
+        int suffix = topic.lastIndexOf(RETRY_TOPIC_SUFFIX);
+        return suffix < 0 ? -1 : Integer.parseInt(topic.substring(suffix + RETRY_TOPIC_SUFFIX.length()));
+    }
+
+    /**
+     * @return le topic applicatif d'un topic de retry ou de dead letter
+     */
+    public static String mainTopic(String topic) {
+        int suffix = topic.lastIndexOf(RETRY_TOPIC_SUFFIX);
+        if (suffix >= 0) {
+            return topic.substring(0, suffix);
+        }
+        return topic.endsWith(DEAD_LETTER_TOPIC_SUFFIX)
+                ? topic.substring(0, topic.length() - DEAD_LETTER_TOPIC_SUFFIX.length())
+                : topic;
+    }
+
+    /**
+     * Lecture des topics : volume minimal et attente maximale d'un fetch, taille maximale d'un lot
+     */
+    public record ConsumerTuning(DataSize fetchMinBytes, Duration fetchMaxWait, int maxPollRecords) {
+
+        public ConsumerTuning {
+            if (fetchMinBytes.toBytes() < 1 || fetchMinBytes.toBytes() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("app.kafka.consumer.fetch-min-bytes invalide: " + fetchMinBytes);
+            }
+            if (fetchMaxWait.isNegative()) {
+                throw new IllegalArgumentException("app.kafka.consumer.fetch-max-wait négatif: " + fetchMaxWait);
+            }
+            if (maxPollRecords < 1) {
+                throw new IllegalArgumentException("app.kafka.consumer.max-poll-records invalide: " + maxPollRecords);
+            }
+        }
+    }
+
+    /**
+     * Format des valeurs produites. Le consommateur lit les deux : passer de json à binary
+     * ne demande pas de vider les topics.
+     */
+    public enum MessageFormat {
+        JSON(JsonSerializer.class),
+        BINARY(CompactMessageSerializer.class);
+
+        private final Class<? extends Serializer> serializer;
+
+        MessageFormat(Class<? extends Serializer> serializer) {
+            this.serializer = serializer;
+        }
+
+        public Class<? extends Serializer> serializer() {
+            return serializer;
+        }
+    }
+
+    /**
+     * Regroupement et compression des envois
+     *
+     * @param maxInFlight requêtes non acquittées par connexion ; au plus 5 avec l'idempotence,
+     *                    qui garantit alors l'ordre par partition malgré les retries
+     */
+    public record ProducerTuning(Duration linger, DataSize batchSize, String compressionType, int maxInFlight) {
+
+        private static final Set<String> COMPRESSION_TYPES = Set.of("none", "gzip", "snappy", "lz4", "zstd");
+
+        /**
+         * Valeurs par défaut du client Kafka : un envoi part dès qu'il est possible, non compressé
+         */
+        public static final ProducerTuning KAFKA_DEFAULTS =
+                new ProducerTuning(Duration.ZERO, DataSize.ofBytes(16384), "none", 5);
+
+        public ProducerTuning {
+            if (linger.isNegative()) {
+                throw new IllegalArgumentException("app.kafka.producer.linger négatif: " + linger);
+            }
+            if (batchSize.toBytes() < 0 || batchSize.toBytes() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("app.kafka.producer.batch-size invalide: " + batchSize);
+            }
+            if (!COMPRESSION_TYPES.contains(compressionType)) {
+                throw new IllegalArgumentException("app.kafka.producer.compression-type inconnu: " + compressionType
+                        + " (attendu: " + COMPRESSION_TYPES + ")");
+            }
+            if (maxInFlight < 1 || maxInFlight > 5) {
+                throw new IllegalArgumentException(
+                        "app.kafka.producer.max-in-flight doit être entre 1 et 5 avec l'idempotence: " + maxInFlight);
+            }
+        }
     }
 }
@@ -1,9 +1,11 @@
 package be.cm.todoapplication.controller;
 
+import be.cm.todoapplication.dto.CursorPageDTO;
 import be.cm.todoapplication.dto.TodoDTO;
 import be.cm.todoapplication.service.PdfService;
 import be.cm.todoapplication.service.TodoService;
 import be.cm.todoapplication.service.TodoSyncService;
+import be.cm.todoapplication.service.pdf.TodoPdfCache;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,7 +18,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -30,6 +31,7 @@ public class TodoController {
     private final TodoService todoService;
     private final PdfService pdfService;
     private final TodoSyncService todoSyncService;
+    private final TodoPdfCache todoPdfCache;
 
     /**
      * Synchronisation avec JSONPlaceholder - Admin uniquement
@@ -77,6 +79,31 @@ public class TodoController {
         }
     }
 
+    /**
+     * Récupère les todos de l'utilisateur par curseur (sans comptage, pages profondes au même coût)
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageDTO<TodoDTO>> getTodosByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Boolean completed,
+            Principal principal) {
+
+        try {
+            CursorPageDTO<TodoDTO> todos = todoService.getUserTodosByCursor(
+                    cursor, Math.max(1, Math.min(size, 100)), completed);
+
+            log.debug("Récupération de {} todos par curseur pour {}", todos.getContent().size(), principal.getName());
+            return ResponseEntity.ok(todos);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Erreur lors de la récupération des todos: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Récupère un todo par ID
      */
@@ -167,23 +194,34 @@ public class TodoController {
      * Génère un PDF pour un todo spécifique
      */
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> getTodoPdf(@PathVariable Long id, Principal principal) {
+    public ResponseEntity<byte[]> getTodoPdf(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Principal principal) {
         try {
             TodoDTO todoDTO = todoService.getTodoById(id)
                     .orElseThrow(() -> new RuntimeException("Todo non trouvé"));
 
-            // Conversion temporaire en Todo pour le service PDF (à refactorer)
-            byte[] pdf = pdfService.generateTodoPdfFromDTO(todoDTO);
+            // Sans version (todo jamais persisté), pas de cache ni d'ETag
+            if (todoDTO.getVersion() == null) {
+                byte[] pdf = pdfService.generateTodoPdfFromDTO(todoDTO);
+                log.info("PDF généré pour le todo {} par {}", id, principal.getName());
+                return new ResponseEntity<>(pdf, pdfHeaders(id), HttpStatus.OK);
+            }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDisposition(
-                    ContentDisposition.builder("attachment")
-                            .filename("tache-" + id + ".pdf")
-                            .build()
-            );
+            TodoPdfCache.Key key = new TodoPdfCache.Key(id, todoDTO.getVersion(), TodoPdfCache.TEMPLATE_DETAIL);
+            HttpHeaders headers = pdfHeaders(id);
+            headers.setETag(key.etag());
+            headers.setCacheControl(CacheControl.noCache().cachePrivate());
+
+            if (etagMatches(ifNoneMatch, key.etag())) {
+                log.debug("PDF du todo {} inchangé pour {} (304)", id, principal.getName());
+                return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+            }
 
-            log.info("PDF généré pour le todo {} par {}", id, principal.getName());
+            byte[] pdf = todoPdfCache.get(key, () -> pdfService.generateTodoPdfFromDTO(todoDTO));
+
+            log.info("PDF servi pour le todo {} par {}", id, principal.getName());
             return new ResponseEntity<>(pdf, headers, HttpStatus.OK);
 
         } catch (RuntimeException e) {
@@ -197,6 +235,39 @@ public class TodoController {
         }
     }
 
+    private static HttpHeaders pdfHeaders(Long id) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDisposition(
+                ContentDisposition.builder("attachment")
+                        .filename("tache-" + id + ".pdf")
+                        .build()
+        );
+        return headers;
+    }
+
+    /**
+     * Comparaison faible If-None-Match (RFC 9110) : liste d'ETags, "*" et préfixe W/ acceptés
+     */
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Génère un PDF signé pour un todo
      */
@@ -272,10 +343,10 @@ public class TodoController {
         try {
             log.info("Génération de PDF en lot demandée par: {}", principal.getName());
 
-            // Récupérer tous les todos de l'utilisateur
-            List<TodoDTO> userTodos = todoService.getAllTodosByUser(principal.getName());
+            // Compter les todos de l'utilisateur, ils seront lus par tranches pendant la génération
+            long todoCount = todoService.countTodosByUser(principal.getName());
 
-            if (userTodos.isEmpty()) {
+            if (todoCount == 0) {
                 return ResponseEntity.badRequest()
                         .body(Map.of("error", "Aucun todo trouvé pour générer le PDF"));
             }
@@ -284,14 +355,15 @@ public class TodoController {
             CompletableFuture<String> pdfResult = pdfService.processLargePdfAsync(
                 principal.getName(),
                 "bulk",
-                userTodos
+                todoCount,
+                todoService.iterateTodosByUser(principal.getName(), PdfService.BULK_PDF_CHUNK_SIZE)
             );
 
             return ResponseEntity.accepted()
                     .body(Map.of(
-                        "message", String.format("Génération PDF démarrée pour %d todos", userTodos.size()),
+                        "message", String.format("Génération PDF démarrée pour %d todos", todoCount),
                         "status", "ACCEPTED",
-                        "todoCount", userTodos.size()
+                        "todoCount", todoCount
                     ));
 
         } catch (Exception e) {
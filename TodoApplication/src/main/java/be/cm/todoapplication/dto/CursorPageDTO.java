@@ -0,0 +1,23 @@
+package be.cm.todoapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page d'une liste paginée par curseur : pas de total ni de numéro de page,
+ * {@code nextCursor} est à renvoyer tel quel pour obtenir la page suivante
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    private int size;
+}
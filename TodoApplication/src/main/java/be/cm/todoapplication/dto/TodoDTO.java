@@ -18,6 +18,9 @@ public class TodoDTO {
 
     private Long id;
 
+    // Version JPA (verrouillage optimiste), change à chaque modification du todo
+    private Long version;
+
     @NotBlank(message = "Le titre est obligatoire")
     @Size(max = 255, message = "Le titre ne peut pas dépasser 255 caractères")
     private String title;
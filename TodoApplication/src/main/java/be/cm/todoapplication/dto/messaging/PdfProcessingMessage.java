@@ -20,6 +20,10 @@ public class PdfProcessingMessage {
     private ProcessingStatus status;
     private String errorMessage;
     private LocalDateTime timestamp;
+    // Progression du rendu (renseignée pour le statut PROCESSING)
+    private Long processedRows;
+    private Long totalRows;
+    private Integer pageCount;
 
     public enum ProcessingStatus {
         PENDING,
@@ -28,8 +32,19 @@ public class PdfProcessingMessage {
         FAILED
     }
 
+    public PdfProcessingMessage(String taskId, String userId, String todoId, String fileName, String filePath,
+                                ProcessingStatus status, String errorMessage, LocalDateTime timestamp) {
+        this(taskId, userId, todoId, fileName, filePath, status, errorMessage, timestamp, null, null, null);
+    }
+
     public static PdfProcessingMessage createPending(String taskId, String userId, String todoId, String fileName, String filePath) {
         return new PdfProcessingMessage(taskId, userId, todoId, fileName, filePath,
                 ProcessingStatus.PENDING, null, LocalDateTime.now());
     }
+
+    public static PdfProcessingMessage createProgress(String taskId, String userId, String todoId, String fileName,
+                                                      String filePath, long processedRows, long totalRows, int pageCount) {
+        return new PdfProcessingMessage(taskId, userId, todoId, fileName, filePath,
+                ProcessingStatus.PROCESSING, null, LocalDateTime.now(), processedRows, totalRows, pageCount);
+    }
 }
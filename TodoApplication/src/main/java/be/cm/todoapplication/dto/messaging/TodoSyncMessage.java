@@ -20,6 +20,17 @@ public class TodoSyncMessage {
     private SyncStatus status;
     private String errorMessage;
     private LocalDateTime timestamp;
+    // Détail du delta, renseigné sur le message de fin de synchronisation
+    private int createdTodos;
+    private int updatedTodos;
+    private int unchangedTodos;
+    private int deletedTodos;
+
+    public TodoSyncMessage(String userId, SyncAction action, String batchId, int totalTodos,
+                           int processedTodos, SyncStatus status, String errorMessage,
+                           LocalDateTime timestamp) {
+        this(userId, action, batchId, totalTodos, processedTodos, status, errorMessage, timestamp, 0, 0, 0, 0);
+    }
 
     public enum SyncAction {
         FETCH_FROM_JSONPLACEHOLDER,
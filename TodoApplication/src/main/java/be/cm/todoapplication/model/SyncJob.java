@@ -0,0 +1,90 @@
+package be.cm.todoapplication.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Job de synchronisation ; son id est le batchId des messages Kafka et WebSocket
+ */
+@Entity
+@Table(name = "sync_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncJob {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Kind kind;
+
+    @Column(name = "requested_by", length = 100)
+    private String requestedBy;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    // Nombre de todos du flux écrits sans trou depuis le début : la reprise saute ces todos
+    @Column(name = "checkpoint_position", nullable = false)
+    @Builder.Default
+    private Long checkpointPosition = 0L;
+
+    @Column(name = "last_external_id")
+    private Long lastExternalId;
+
+    @Column(name = "created_count")
+    private Integer createdCount;
+
+    @Column(name = "updated_count")
+    private Integer updatedCount;
+
+    @Column(name = "unchanged_count")
+    private Integer unchangedCount;
+
+    @Column(name = "deleted_count")
+    private Integer deletedCount;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        startedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public enum Kind {
+        // Source relue en flux : reprenable
+        SOURCE
+    }
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        INTERRUPTED
+    }
+}
@@ -0,0 +1,30 @@
+package be.cm.todoapplication.repository;
+
+import be.cm.todoapplication.model.SyncJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SyncJobRepository extends JpaRepository<SyncJob, String> {
+
+    List<SyncJob> findByStatusOrderByStartedAtDesc(SyncJob.Status status);
+
+    /**
+     * Avance le point de contrôle ; sans effet si un point plus avancé est déjà enregistré
+     * (les voies d'un sync le font progresser dans le désordre) ou si le job n'est plus en cours
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SyncJob j SET j.checkpointPosition = :position, j.lastExternalId = :externalId, " +
+           "j.updatedAt = :now WHERE j.id = :id AND j.checkpointPosition < :position " +
+           "AND j.status = be.cm.todoapplication.model.SyncJob$Status.RUNNING")
+    int advanceCheckpoint(@Param("id") String id, @Param("position") long position,
+                          @Param("externalId") Long externalId, @Param("now") LocalDateTime now);
+}
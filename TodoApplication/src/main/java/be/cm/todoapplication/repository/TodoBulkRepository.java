@@ -0,0 +1,102 @@
+package be.cm.todoapplication.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Écritures ensemblistes sur la table todos, hors Hibernate (l'id IDENTITY empêche le batching JPA).
+ * Les méthodes doivent être appelées dans une transaction ouverte par l'appelant.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TodoBulkRepository {
+
+    // Une seule instruction pour toute la tranche ; la clause WHERE du DO UPDATE laisse intactes
+    // les lignes identiques à la source, RETURNING ne renvoie que les lignes écrites.
+    // Comparaison sur les colonnes elles-mêmes : une modification locale d'un todo synchronisé est écrasée
+    private static final String UPSERT_CHANGED_BY_EXTERNAL_ID =
+            "INSERT INTO todos (external_id, title, completed, user_id, created_at, created_by, version) " +
+            "SELECT r.external_id, r.title, r.completed, r.user_id, now(), ?, 0 " +
+            "FROM unnest(?::bigint[], ?::text[], ?::boolean[], ?::bigint[]) " +
+            "AS r(external_id, title, completed, user_id) " +
+            "ON CONFLICT (external_id) DO UPDATE SET " +
+            "title = EXCLUDED.title, completed = EXCLUDED.completed, user_id = EXCLUDED.user_id, " +
+            "updated_at = now(), updated_by = EXCLUDED.created_by, version = todos.version + 1 " +
+            "WHERE (todos.title, todos.completed, todos.user_id) " +
+            "IS DISTINCT FROM (EXCLUDED.title, EXCLUDED.completed, EXCLUDED.user_id) " +
+            "RETURNING (xmax = 0) AS inserted";
+
+    private static final String DELETE_EXTERNAL_NOT_IN =
+            "DELETE FROM todos WHERE external_id IS NOT NULL AND NOT (external_id = ANY (?::bigint[]))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insère les nouveaux todos et met à jour ceux dont le contenu a changé, par external_id.
+     * Un même external_id ne doit apparaître qu'une fois dans {@code rows}.
+     *
+     * @return nombre de lignes créées et mises à jour ; les autres lignes de {@code rows} sont inchangées
+     */
+    public UpsertCounts upsertChangedByExternalId(List<TodoUpsert> rows, String author) {
+        int size = rows.size();
+        Long[] externalIds = new Long[size];
+        String[] titles = new String[size];
+        Boolean[] completed = new Boolean[size];
+        Long[] userIds = new Long[size];
+        for (int i = 0; i < size; i++) {
+            TodoUpsert row = rows.get(i);
+            externalIds[i] = row.externalId();
+            titles[i] = row.title();
+            completed[i] = row.completed();
+            userIds[i] = row.userId();
+        }
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(UPSERT_CHANGED_BY_EXTERNAL_ID);
+            ps.setString(1, author);
+            ps.setArray(2, connection.createArrayOf("bigint", externalIds));
+            ps.setArray(3, connection.createArrayOf("text", titles));
+            ps.setArray(4, connection.createArrayOf("boolean", completed));
+            ps.setArray(5, connection.createArrayOf("bigint", userIds));
+            return ps;
+        }, rs -> {
+            int inserted = 0;
+            int updated = 0;
+            while (rs.next()) {
+                if (rs.getBoolean("inserted")) {
+                    inserted++;
+                } else {
+                    updated++;
+                }
+            }
+            return new UpsertCounts(inserted, updated);
+        });
+    }
+
+    /**
+     * Supprime les todos synchronisés dont l'external_id n'est pas dans {@code seenExternalIds}
+     *
+     * @return nombre de todos supprimés
+     */
+    public int deleteExternalNotIn(Collection<Long> seenExternalIds) {
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(DELETE_EXTERNAL_NOT_IN);
+            ps.setArray(1, connection.createArrayOf("bigint", seenExternalIds.toArray(Long[]::new)));
+            return ps;
+        });
+    }
+
+    /**
+     * Ligne à synchroniser, identifiée par son id dans la source externe
+     */
+    public record TodoUpsert(long externalId, String title, boolean completed, long userId) {
+    }
+
+    public record UpsertCounts(int inserted, int updated) {
+    }
+}
@@ -4,6 +4,8 @@ import be.cm.todoapplication.model.Todo;
 import be.cm.todoapplication.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,28 +20,71 @@ public interface TodoRepository extends JpaRepository<Todo, Long> {
 
     Page<Todo> findByUser(User user, Pageable pageable);
 
-    // Méthode pour récupérer tous les todos d'un utilisateur sans pagination
-    List<Todo> findByUser(User user);
-
     Page<Todo> findByUserAndCompleted(User user, Boolean completed, Pageable pageable);
 
+    // Les listes paginées chargent l'utilisateur dans la même requête (username du DTO), sans N+1
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT t FROM Todo t WHERE (:user IS NULL OR t.user = :user) AND (:completed IS NULL OR t.completed = :completed)")
     Page<Todo> findByUserWithOptionalCompleted(@Param("user") User user,
                                                @Param("completed") Boolean completed,
                                                Pageable pageable);
 
-    @Query("SELECT t FROM Todo t WHERE (:user IS NULL OR t.user = :user) AND t.title LIKE %:search%")
-    Page<Todo> findByUserAndTitleContaining(@Param("user") User user,
-                                           @Param("search") String search,
-                                           Pageable pageable);
+    // Recherche plein texte (colonne search_vector + index GIN, V5), triée par pertinence.
+    // websearch_to_tsquery accepte la syntaxe utilisateur ("phrase", -exclu, or) sans erreur de syntaxe.
+    // Le pageable doit être non trié : l'ordre est celui du rang.
+    @Query(value = "SELECT t.* FROM todos t " +
+                   "WHERE (CAST(:userId AS BIGINT) IS NULL OR t.user_id = :userId) " +
+                   "AND (CAST(:completed AS BOOLEAN) IS NULL OR t.completed = :completed) " +
+                   "AND t.search_vector @@ websearch_to_tsquery('simple', :search) " +
+                   "ORDER BY ts_rank(t.search_vector, websearch_to_tsquery('simple', :search)) DESC, t.id DESC",
+           countQuery = "SELECT COUNT(*) FROM todos t " +
+                        "WHERE (CAST(:userId AS BIGINT) IS NULL OR t.user_id = :userId) " +
+                        "AND (CAST(:completed AS BOOLEAN) IS NULL OR t.completed = :completed) " +
+                        "AND t.search_vector @@ websearch_to_tsquery('simple', :search)",
+           nativeQuery = true)
+    Page<Todo> searchByRank(@Param("userId") Long userId,
+                            @Param("completed") Boolean completed,
+                            @Param("search") String search,
+                            Pageable pageable);
+
+    // Pagination par curseur : page suivant (createdAt, id), sans COUNT ni OFFSET (index V4)
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT t FROM Todo t WHERE t.user = :user AND (:completed IS NULL OR t.completed = :completed) " +
+           "AND (t.createdAt, t.id) < (:createdAt, :id) ORDER BY t.createdAt DESC, t.id DESC")
+    Slice<Todo> findKeysetPageByUser(@Param("user") User user,
+                                     @Param("completed") Boolean completed,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT t FROM Todo t WHERE (:completed IS NULL OR t.completed = :completed) " +
+           "AND (t.createdAt, t.id) < (:createdAt, :id) ORDER BY t.createdAt DESC, t.id DESC")
+    Slice<Todo> findKeysetPage(@Param("completed") Boolean completed,
+                               @Param("createdAt") LocalDateTime createdAt,
+                               @Param("id") Long id,
+                               Pageable pageable);
 
     List<Todo> findByUserAndCompletedOrderByCreatedAtDesc(User user, Boolean completed);
 
     @Query("SELECT COUNT(t) FROM Todo t WHERE (:user IS NULL OR t.user = :user) AND (:completed IS NULL OR t.completed = :completed)")
     long countByUserAndCompleted(@Param("user") User user, @Param("completed") Boolean completed);
 
+    @EntityGraph(attributePaths = "user")
     Optional<Todo> findByIdAndUser(Long id, User user);
 
+    @Override
+    @EntityGraph(attributePaths = "user")
+    Optional<Todo> findById(Long id);
+
+    long countByUser(User user);
+
+    // Lecture par tranches (keyset sur l'id) pour les exports volumineux, sans COUNT ni OFFSET
+    @Query("SELECT t FROM Todo t JOIN FETCH t.user WHERE t.user = :user AND t.id > :afterId ORDER BY t.id ASC")
+    List<Todo> findChunkByUserAfterId(@Param("user") User user,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
     Optional<Todo> findByExternalId(Long externalId);
 
     @Query("SELECT COUNT(t) FROM Todo t WHERE t.user = :user AND t.createdAt >= :since")
@@ -0,0 +1,38 @@
+package be.cm.todoapplication.repository;
+
+import be.cm.todoapplication.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Écritures ensemblistes sur la table users (création des comptes importés par la synchronisation).
+ * Les méthodes doivent être appelées dans une transaction ouverte par l'appelant.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserBulkRepository {
+
+    // Username ou email déjà pris : la ligne est ignorée, l'appelant relit les utilisateurs créés
+    private static final String INSERT_IF_ABSENT =
+            "INSERT INTO users (username, email, password, role, enabled, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, now()) " +
+            "ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insère les utilisateurs en un seul batch JDBC, sans erreur pour ceux qui existent déjà
+     */
+    public void insertIfAbsent(List<User> users) {
+        jdbcTemplate.batchUpdate(INSERT_IF_ABSENT, users, users.size(), (ps, user) -> {
+            ps.setString(1, user.getUsername());
+            ps.setString(2, user.getEmail());
+            ps.setString(3, user.getPassword());
+            ps.setString(4, user.getRole().name());
+            ps.setBoolean(5, user.isEnabled());
+        });
+    }
+}
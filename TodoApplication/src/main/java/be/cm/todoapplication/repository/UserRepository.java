@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,10 +17,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
 
+    List<User> findByUsernameIn(Collection<String> usernames);
+
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
 
     @Query("SELECT u FROM User u WHERE u.username = :username OR u.email = :username")
     Optional<User> findByUsernameOrEmail(@Param("username") String username);
+
+    @Query("SELECT u.enabled FROM User u WHERE u.id = :id")
+    Optional<Boolean> findEnabledById(@Param("id") Long id);
 }
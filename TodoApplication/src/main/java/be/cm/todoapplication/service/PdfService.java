@@ -5,34 +5,61 @@ import be.cm.todoapplication.dto.UserDTO;
 import be.cm.todoapplication.dto.messaging.NotificationMessage;
 import be.cm.todoapplication.dto.messaging.PdfProcessingMessage;
 import be.cm.todoapplication.model.Todo;
+import be.cm.todoapplication.service.pdf.PdfStyles;
+import be.cm.todoapplication.service.pdf.PdfTemplates;
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.*;
 import com.itextpdf.text.pdf.draw.LineSeparator;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class PdfService {
 
     private final KafkaMessageService kafkaMessageService;
     private final WebSocketNotificationService webSocketNotificationService;
+    private final String storagePath;
+    private final LongSupplier clock;
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final DateTimeFormatter DATE_FORMATTER = PdfTemplates.DATE_FORMATTER;
     private static final String PDF_STORAGE_PATH = "pdf-storage/";
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+
+    // Taille des tranches lues en base et nombre de lignes entre deux vidages du tableau
+    public static final int BULK_PDF_CHUNK_SIZE = 500;
+    private static final int BULK_PDF_FLUSH_ROWS = 500;
+    private static final long PROGRESS_INTERVAL_MS = 1000;
+
+    @Autowired
+    public PdfService(KafkaMessageService kafkaMessageService,
+                      WebSocketNotificationService webSocketNotificationService) {
+        this(kafkaMessageService, webSocketNotificationService, PDF_STORAGE_PATH, System::currentTimeMillis);
+    }
+
+    PdfService(KafkaMessageService kafkaMessageService, WebSocketNotificationService webSocketNotificationService,
+               String storagePath, LongSupplier clock) {
+        this.kafkaMessageService = kafkaMessageService;
+        this.webSocketNotificationService = webSocketNotificationService;
+        this.storagePath = storagePath;
+        this.clock = clock;
+    }
 
     // ... existing methods ...
 
@@ -44,47 +71,29 @@ public class PdfService {
 
         Document document = new Document(PageSize.A4);
         ByteArrayOutputStream out = new ByteArrayOutputStream();
-
-        PdfWriter.getInstance(document, out);
-        document.open();
-
-        Font titleFont = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD);
-        Font headerFont = new Font(Font.FontFamily.HELVETICA, 14, Font.BOLD);
-        Font normalFont = new Font(Font.FontFamily.HELVETICA, 12);
+        PdfTemplates.open(document, out);
 
         // Titre
-        Paragraph title = new Paragraph("Détails de la Tâche", titleFont);
-        title.setAlignment(Element.ALIGN_CENTER);
-        title.setSpacingAfter(20);
-        document.add(title);
+        PdfTemplates.addTitle(document, "Détails de la Tâche", PdfStyles.TITLE, 20);
 
         // Informations de la tâche
-        document.add(new Paragraph("ID: " + todo.getId(), headerFont));
-        document.add(new Paragraph("Titre: " + todo.getTitle(), headerFont));
-        document.add(new Paragraph("Statut: " + (todo.getCompleted() ? "Terminée" : "En cours"), normalFont));
-        document.add(new Paragraph("Utilisateur: " + todo.getUsername(), normalFont));
-
-        if (todo.getDescription() != null && !todo.getDescription().isEmpty()) {
-            document.add(new Paragraph(" ", normalFont));
-            document.add(new Paragraph("Description:", headerFont));
-            document.add(new Paragraph(todo.getDescription(), normalFont));
-        }
+        PdfTemplates.addTodoDetails(document, todo);
 
         // Informations d'audit
         document.add(new LineSeparator());
-        document.add(new Paragraph(" ", normalFont));
+        PdfTemplates.addBlankLine(document, PdfStyles.BODY);
 
         if (todo.getCreatedAt() != null) {
-            document.add(new Paragraph("Créée le: " + todo.getCreatedAt().format(DATE_FORMATTER), normalFont));
+            document.add(new Paragraph("Créée le: " + todo.getCreatedAt().format(DATE_FORMATTER), PdfStyles.BODY));
         }
         if (todo.getCreatedBy() != null) {
-            document.add(new Paragraph("Créée par: " + todo.getCreatedBy(), normalFont));
+            document.add(new Paragraph("Créée par: " + todo.getCreatedBy(), PdfStyles.BODY));
         }
         if (todo.getUpdatedAt() != null) {
-            document.add(new Paragraph("Modifiée le: " + todo.getUpdatedAt().format(DATE_FORMATTER), normalFont));
+            document.add(new Paragraph("Modifiée le: " + todo.getUpdatedAt().format(DATE_FORMATTER), PdfStyles.BODY));
         }
         if (todo.getUpdatedBy() != null) {
-            document.add(new Paragraph("Modifiée par: " + todo.getUpdatedBy(), normalFont));
+            document.add(new Paragraph("Modifiée par: " + todo.getUpdatedBy(), PdfStyles.BODY));
         }
 
         document.close();
@@ -99,55 +108,36 @@ public class PdfService {
 
         Document document = new Document(PageSize.A4);
         ByteArrayOutputStream out = new ByteArrayOutputStream();
-
-        PdfWriter.getInstance(document, out);
-        document.open();
-
-        Font titleFont = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD);
-        Font headerFont = new Font(Font.FontFamily.HELVETICA, 14, Font.BOLD);
-        Font normalFont = new Font(Font.FontFamily.HELVETICA, 12);
-        Font signatureFont = new Font(Font.FontFamily.HELVETICA, 14, Font.ITALIC, BaseColor.BLUE);
+        PdfTemplates.open(document, out);
 
         // Titre avec mention "SIGNÉ"
-        Paragraph title = new Paragraph("Tâche Signée Électroniquement", titleFont);
-        title.setAlignment(Element.ALIGN_CENTER);
-        title.setSpacingAfter(20);
-        document.add(title);
+        PdfTemplates.addTitle(document, "Tâche Signée Électroniquement", PdfStyles.TITLE, 20);
 
         // Watermark de sécurité
         Paragraph watermark = new Paragraph("DOCUMENT SIGNÉ - " + java.time.LocalDateTime.now().format(DATE_FORMATTER),
-                                          new Font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, BaseColor.GRAY));
+                                          PdfStyles.WATERMARK);
         watermark.setAlignment(Element.ALIGN_RIGHT);
         document.add(watermark);
 
-        document.add(new Paragraph(" ", normalFont));
+        PdfTemplates.addBlankLine(document, PdfStyles.BODY);
 
         // Informations de la tâche
-        document.add(new Paragraph("ID: " + todo.getId(), headerFont));
-        document.add(new Paragraph("Titre: " + todo.getTitle(), headerFont));
-        document.add(new Paragraph("Statut: " + (todo.getCompleted() ? "Terminée" : "En cours"), normalFont));
-        document.add(new Paragraph("Utilisateur: " + todo.getUsername(), normalFont));
-
-        if (todo.getDescription() != null && !todo.getDescription().isEmpty()) {
-            document.add(new Paragraph(" ", normalFont));
-            document.add(new Paragraph("Description:", headerFont));
-            document.add(new Paragraph(todo.getDescription(), normalFont));
-        }
+        PdfTemplates.addTodoDetails(document, todo);
 
         // Section signature
         document.add(new LineSeparator());
-        document.add(new Paragraph(" ", normalFont));
-        document.add(new Paragraph("Signature Électronique:", headerFont));
-        document.add(new Paragraph(signature, signatureFont));
-        document.add(new Paragraph("Signé le: " + java.time.LocalDateTime.now().format(DATE_FORMATTER), normalFont));
+        PdfTemplates.addBlankLine(document, PdfStyles.BODY);
+        document.add(new Paragraph("Signature Électronique:", PdfStyles.HEADING));
+        document.add(new Paragraph(signature, PdfStyles.SIGNATURE));
+        document.add(new Paragraph("Signé le: " + java.time.LocalDateTime.now().format(DATE_FORMATTER), PdfStyles.BODY));
 
         // Informations d'audit
-        document.add(new Paragraph(" ", normalFont));
+        PdfTemplates.addBlankLine(document, PdfStyles.BODY);
         if (todo.getCreatedAt() != null) {
-            document.add(new Paragraph("Créée le: " + todo.getCreatedAt().format(DATE_FORMATTER), normalFont));
+            document.add(new Paragraph("Créée le: " + todo.getCreatedAt().format(DATE_FORMATTER), PdfStyles.BODY));
         }
         if (todo.getCreatedBy() != null) {
-            document.add(new Paragraph("Créée par: " + todo.getCreatedBy(), normalFont));
+            document.add(new Paragraph("Créée par: " + todo.getCreatedBy(), PdfStyles.BODY));
         }
 
         document.close();
@@ -157,39 +147,18 @@ public class PdfService {
     public byte[] generateUsersListPdf(List<UserDTO> users) throws DocumentException {
         Document document = new Document(PageSize.A4);
         ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfTemplates.open(document, out);
 
-        PdfWriter.getInstance(document, out);
-        document.open();
-
-        Font titleFont = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD);
-        Font headerFont = new Font(Font.FontFamily.HELVETICA, 12, Font.BOLD);
-        Font normalFont = new Font(Font.FontFamily.HELVETICA, 10);
-
-        Paragraph title = new Paragraph("Liste des Utilisateurs", titleFont);
-        title.setAlignment(Element.ALIGN_CENTER);
-        title.setSpacingAfter(20);
-        document.add(title);
-
-        PdfPTable table = new PdfPTable(5);
-        table.setWidthPercentage(100);
-        table.setSpacingBefore(10f);
-        table.setSpacingAfter(10f);
-
-        String[] headers = {"ID", "Nom", "Username", "Email", "Téléphone"};
-        for (String header : headers) {
-            PdfPCell cell = new PdfPCell(new Phrase(header, headerFont));
-            cell.setBackgroundColor(BaseColor.LIGHT_GRAY);
-            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-            cell.setPadding(5);
-            table.addCell(cell);
-        }
+        PdfTemplates.addTitle(document, "Liste des Utilisateurs", PdfStyles.TITLE, 20);
+
+        PdfPTable table = PdfTemplates.newUserTable();
 
         for (UserDTO user : users) {
-            table.addCell(new Phrase(String.valueOf(user.getId()), normalFont));
-            table.addCell(new Phrase(user.getName(), normalFont));
-            table.addCell(new Phrase(user.getUsername(), normalFont));
-            table.addCell(new Phrase(user.getEmail(), normalFont));
-            table.addCell(new Phrase(user.getPhone(), normalFont));
+            table.addCell(new Phrase(String.valueOf(user.getId()), PdfStyles.BODY_SMALL));
+            table.addCell(new Phrase(user.getName(), PdfStyles.BODY_SMALL));
+            table.addCell(new Phrase(user.getUsername(), PdfStyles.BODY_SMALL));
+            table.addCell(new Phrase(user.getEmail(), PdfStyles.BODY_SMALL));
+            table.addCell(new Phrase(user.getPhone(), PdfStyles.BODY_SMALL));
         }
 
         document.add(table);
@@ -201,31 +170,13 @@ public class PdfService {
     public byte[] generateTodoPdf(Todo todo) throws DocumentException, IOException {
         Document document = new Document(PageSize.A4);
         ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfTemplates.open(document, out);
 
-        PdfWriter writer = PdfWriter.getInstance(document, out);
-        document.open();
-
-        Font titleFont = new Font(Font.FontFamily.HELVETICA, 20, Font.BOLD);
-        Font labelFont = new Font(Font.FontFamily.HELVETICA, 12, Font.BOLD);
-        Font normalFont = new Font(Font.FontFamily.HELVETICA, 12);
-
-        Paragraph title = new Paragraph("Détails de la Tâche", titleFont);
-        title.setAlignment(Element.ALIGN_CENTER);
-        title.setSpacingAfter(30);
-        document.add(title);
-
-        document.add(new Paragraph("ID: " + todo.getId(), normalFont));
-        document.add(new Paragraph(" "));
-        document.add(new Paragraph("Utilisateur: " + todo.getUsername(), normalFont));
-        document.add(new Paragraph(" "));
-        document.add(new Paragraph("Titre: " + todo.getTitle(), normalFont));
-        document.add(new Paragraph(" "));
-        document.add(new Paragraph("Statut: " + (todo.getCompleted() ? "Complétée" : "En cours"), normalFont));
-        document.add(new Paragraph(" "));
-        document.add(new Paragraph(" "));
+        PdfTemplates.addTitle(document, "Détails de la Tâche", PdfStyles.TITLE_LARGE, 30);
+        PdfTemplates.addTodoDetails(document, todo);
         document.add(new Paragraph(" "));
 
-        Paragraph signatureLabel = new Paragraph("Signature Électronique:", labelFont);
+        Paragraph signatureLabel = new Paragraph("Signature Électronique:", PdfStyles.LABEL);
         signatureLabel.setSpacingBefore(50);
         document.add(signatureLabel);
 
@@ -243,28 +194,10 @@ public class PdfService {
             throws DocumentException, IOException {
         Document document = new Document(PageSize.A4);
         ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfTemplates.open(document, out);
 
-        PdfWriter writer = PdfWriter.getInstance(document, out);
-        document.open();
-
-        Font titleFont = new Font(Font.FontFamily.HELVETICA, 20, Font.BOLD);
-        Font labelFont = new Font(Font.FontFamily.HELVETICA, 12, Font.BOLD);
-        Font normalFont = new Font(Font.FontFamily.HELVETICA, 12);
-
-        Paragraph title = new Paragraph("Détails de la Tâche", titleFont);
-        title.setAlignment(Element.ALIGN_CENTER);
-        title.setSpacingAfter(30);
-        document.add(title);
-
-        document.add(new Paragraph("ID: " + todo.getId(), normalFont));
-        document.add(new Paragraph(" "));
-        document.add(new Paragraph("Utilisateur: " + todo.getUsername(), normalFont));
-        document.add(new Paragraph(" "));
-        document.add(new Paragraph("Titre: " + todo.getTitle(), normalFont));
-        document.add(new Paragraph(" "));
-        document.add(new Paragraph("Statut: " + (todo.getCompleted() ? "Complétée" : "En cours"), normalFont));
-        document.add(new Paragraph(" "));
-        document.add(new Paragraph(" "));
+        PdfTemplates.addTitle(document, "Détails de la Tâche", PdfStyles.TITLE_LARGE, 30);
+        PdfTemplates.addTodoDetails(document, todo);
 
         if (signatureBase64 != null && !signatureBase64.isEmpty()) {
             String base64Image = signatureBase64.split(",")[1];
@@ -274,7 +207,7 @@ public class PdfService {
             signature.scaleToFit(200, 100);
             signature.setAlignment(Element.ALIGN_LEFT);
 
-            Paragraph signatureLabel = new Paragraph("Signature Électronique:", labelFont);
+            Paragraph signatureLabel = new Paragraph("Signature Électronique:", PdfStyles.LABEL);
             signatureLabel.setSpacingBefore(30);
             document.add(signatureLabel);
             document.add(signature);
@@ -286,13 +219,15 @@ public class PdfService {
     }
 
     /**
-     * Méthode pour traitement asynchrone des PDFs volumineux
+     * Méthode pour traitement asynchrone des PDFs volumineux.
+     * Les todos sont lus tranche par tranche et le PDF est écrit directement dans le fichier.
      */
     @Async("pdfProcessingExecutor")
-    public CompletableFuture<String> processLargePdfAsync(String userId, String todoId, List<TodoDTO> todos) {
+    public CompletableFuture<String> processLargePdfAsync(String userId, String todoId, long totalTodos,
+                                                          Iterable<List<TodoDTO>> todoChunks) {
         String taskId = UUID.randomUUID().toString();
         String fileName = String.format("todos-bulk-%s.pdf", taskId);
-        String filePath = PDF_STORAGE_PATH + fileName;
+        String filePath = storagePath + fileName;
 
         try {
             // Envoyer message de début de traitement
@@ -302,18 +237,22 @@ public class PdfService {
             // Notification WebSocket de début
             webSocketNotificationService.sendPdfProcessingUpdate(userId, taskId, "PROCESSING", "PDF generation started...");
 
-            log.info("Starting async PDF processing for task: {}", taskId);
-
-            // Simulation du traitement lourd
-            Thread.sleep(2000); // Simulate heavy processing
-
-            // Génération du PDF
-            byte[] pdfBytes = generateBulkTodosPdf(todos);
+            log.info("Starting async PDF processing for task: {} ({} todos)", taskId, totalTodos);
 
-            // Sauvegarde du fichier
+            // Génération du PDF en flux vers un fichier temporaire, renommé une fois complet
             Path pdfPath = Paths.get(filePath);
+            Path partPath = Paths.get(filePath + ".part");
             Files.createDirectories(pdfPath.getParent());
-            Files.write(pdfPath, pdfBytes);
+
+            long writtenTodos;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partPath), FILE_BUFFER_SIZE)) {
+                writtenTodos = writeBulkTodosPdf(todoChunks, out,
+                        progressReporter(taskId, userId, todoId, fileName, filePath, totalTodos));
+            } catch (Exception e) {
+                Files.deleteIfExists(partPath);
+                throw e;
+            }
+            Files.move(partPath, pdfPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
 
             // Message de succès
             PdfProcessingMessage completedMessage = new PdfProcessingMessage(
@@ -331,7 +270,7 @@ public class PdfService {
                 userId,
                 NotificationMessage.NotificationType.PDF_PROCESSING_COMPLETED,
                 "PDF Ready",
-                String.format("Your PDF with %d todos is ready for download", todos.size()),
+                String.format("Your PDF with %d todos is ready for download", writtenTodos),
                 taskId
             );
             kafkaMessageService.sendNotificationMessage(notification);
@@ -357,64 +296,106 @@ public class PdfService {
         }
     }
 
-    private byte[] generateBulkTodosPdf(List<TodoDTO> todos) throws DocumentException {
-        log.info("Generating bulk PDF for {} todos", todos.size());
+    /**
+     * Publie la progression du rendu (message PROCESSING avec lignes et pages),
+     * au plus une fois par {@link #PROGRESS_INTERVAL_MS} ; la fin du rendu est toujours publiée
+     */
+    private RenderProgressListener progressReporter(String taskId, String userId, String todoId,
+                                                    String fileName, String filePath, long totalTodos) {
+        long[] lastReport = {clock.getAsLong()};
+        return new RenderProgressListener() {
+            @Override
+            public void onProgress(long renderedRows, int pageCount) {
+                long now = clock.getAsLong();
+                if (now - lastReport[0] < PROGRESS_INTERVAL_MS) {
+                    return;
+                }
+                lastReport[0] = now;
+                onComplete(renderedRows, pageCount);
+            }
+
+            @Override
+            public void onComplete(long renderedRows, int pageCount) {
+                kafkaMessageService.sendPdfProcessingMessage(PdfProcessingMessage.createProgress(
+                        taskId, userId, todoId, fileName, filePath, renderedRows, totalTodos, pageCount));
+            }
+        };
+    }
 
+    /**
+     * Écrit le rapport des tâches en flux dans {@code out}.
+     * Le tableau est marqué incomplet (setComplete(false)) et vidé vers le writer toutes les
+     * {@link #BULK_PDF_FLUSH_ROWS} lignes : la mémoire utilisée ne dépend pas du nombre de todos.
+     * {@code progressListener} est appelé après chaque vidage, puis une dernière fois avec le total.
+     *
+     * @return le nombre de todos écrits
+     */
+    long writeBulkTodosPdf(Iterable<List<TodoDTO>> todoChunks, OutputStream out,
+                           RenderProgressListener progressListener) throws DocumentException {
         Document document = new Document(PageSize.A4);
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfWriter writer = PdfTemplates.open(document, out);
 
-        PdfWriter.getInstance(document, out);
-        document.open();
-
-        Font titleFont = new Font(Font.FontFamily.HELVETICA, 20, Font.BOLD);
-        Font headerFont = new Font(Font.FontFamily.HELVETICA, 14, Font.BOLD);
-        Font normalFont = new Font(Font.FontFamily.HELVETICA, 12);
-
-        // Titre principal
-        Paragraph title = new Paragraph("Rapport des Tâches", titleFont);
-        title.setAlignment(Element.ALIGN_CENTER);
-        title.setSpacingAfter(30);
-        document.add(title);
-
-        // Table pour les todos
-        PdfPTable table = new PdfPTable(4);
-        table.setWidthPercentage(100);
-        table.setWidths(new float[]{1, 3, 2, 2});
-
-        // En-têtes
-        addTableCell(table, "ID", headerFont, BaseColor.GRAY);
-        addTableCell(table, "Titre", headerFont, BaseColor.GRAY);
-        addTableCell(table, "Statut", headerFont, BaseColor.GRAY);
-        addTableCell(table, "Utilisateur", headerFont, BaseColor.GRAY);
-
-        // Données
-        for (TodoDTO todo : todos) {
-            addTableCell(table, todo.getId().toString(), normalFont, BaseColor.WHITE);
-            addTableCell(table, todo.getTitle(), normalFont, BaseColor.WHITE);
-            addTableCell(table, todo.getCompleted() ? "Terminé" : "En cours", normalFont, BaseColor.WHITE);
-            addTableCell(table, todo.getUserId().toString(), normalFont, BaseColor.WHITE);
+        long totalCount = 0;
+        try {
+            // Titre principal
+            PdfTemplates.addTitle(document, "Rapport des Tâches", PdfStyles.TITLE_LARGE, 30);
+
+            // Table pour les todos, écrite au fil de l'eau ; en-têtes répétés sur chaque page
+            PdfPTable table = PdfTemplates.newTodoTable();
+            table.setComplete(false);
+            table.setHeaderRows(1);
+
+            // Données
+            long completedCount = 0;
+            for (List<TodoDTO> chunk : todoChunks) {
+                for (TodoDTO todo : chunk) {
+                    table.addCell(new Phrase(todo.getId().toString(), PdfStyles.BODY));
+                    table.addCell(new Phrase(todo.getTitle(), PdfStyles.BODY));
+                    table.addCell(new Phrase(todo.getCompleted() ? "Terminé" : "En cours", PdfStyles.BODY));
+                    table.addCell(new Phrase(todo.getUserId().toString(), PdfStyles.BODY));
+
+                    totalCount++;
+                    if (todo.getCompleted()) {
+                        completedCount++;
+                    }
+                    if (totalCount % BULK_PDF_FLUSH_ROWS == 0) {
+                        document.add(table);
+                        progressListener.onProgress(totalCount, writer.getPageNumber());
+                    }
+                }
+            }
+
+            table.setComplete(true);
+            document.add(table);
+            progressListener.onComplete(totalCount, writer.getPageNumber());
+
+            // Résumé
+            document.add(new Paragraph("\n"));
+            document.add(new Paragraph("Résumé:", PdfStyles.HEADING));
+
+            document.add(new Paragraph(String.format("Total des tâches: %d", totalCount), PdfStyles.BODY));
+            document.add(new Paragraph(String.format("Tâches terminées: %d", completedCount), PdfStyles.BODY));
+            document.add(new Paragraph(String.format("Tâches en cours: %d", totalCount - completedCount), PdfStyles.BODY));
+        } finally {
+            // Referme le writer et le flux même si la lecture d'une tranche échoue
+            document.close();
         }
-
-        document.add(table);
-
-        // Résumé
-        document.add(new Paragraph("\n"));
-        Paragraph summary = new Paragraph("Résumé:", headerFont);
-        document.add(summary);
-
-        long completedCount = todos.stream().mapToLong(t -> t.getCompleted() ? 1 : 0).sum();
-        document.add(new Paragraph(String.format("Total des tâches: %d", todos.size()), normalFont));
-        document.add(new Paragraph(String.format("Tâches terminées: %d", completedCount), normalFont));
-        document.add(new Paragraph(String.format("Tâches en cours: %d", todos.size() - completedCount), normalFont));
-
-        document.close();
-        return out.toByteArray();
+        log.info("Bulk PDF written for {} todos", totalCount);
+        return totalCount;
     }
 
-    private void addTableCell(PdfPTable table, String content, Font font, BaseColor backgroundColor) {
-        PdfPCell cell = new PdfPCell(new Phrase(content, font));
-        cell.setBackgroundColor(backgroundColor);
-        cell.setPadding(8);
-        table.addCell(cell);
+    /**
+     * Reçoit la progression du rendu d'un PDF en flux
+     */
+    @FunctionalInterface
+    public interface RenderProgressListener {
+        void onProgress(long renderedRows, int pageCount);
+
+        /**
+         * Appelé une fois toutes les lignes écrites, avec le total
+         */
+        default void onComplete(long renderedRows, int pageCount) {
+            onProgress(renderedRows, pageCount);
+        }
     }
 }
@@ -0,0 +1,44 @@
+package be.cm.todoapplication.service;
+
+import be.cm.todoapplication.model.Todo;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position dans la liste des todos triée par (createdAt, id) décroissants.
+ * Sérialisée en base64url opaque pour le client.
+ */
+record TodoCursor(LocalDateTime createdAt, long id) {
+
+    // Position avant le premier élément : la première page utilise la même requête que les suivantes
+    static final TodoCursor START = new TodoCursor(LocalDateTime.of(9999, 12, 31, 23, 59), Long.MAX_VALUE);
+
+    static TodoCursor after(Todo todo) {
+        return new TodoCursor(todo.getCreatedAt(), todo.getId());
+    }
+
+    String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException si le curseur n'a pas été produit par {@link #encode()}
+     */
+    static TodoCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new TodoCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Curseur invalide: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package be.cm.todoapplication.service;
+
+import be.cm.todoapplication.dto.TodoDTO;
+import be.cm.todoapplication.model.Todo;
+
+/**
+ * Conversion des entités Todo en DTO exposés par l'API
+ */
+final class TodoMapper {
+
+    private TodoMapper() {
+    }
+
+    static TodoDTO toDTO(Todo todo) {
+        return toDTO(todo, todo.getUsername());
+    }
+
+    /**
+     * @param username nom du propriétaire, lorsque l'appelant le connaît sans charger l'utilisateur
+     */
+    static TodoDTO toDTO(Todo todo, String username) {
+        return TodoDTO.builder()
+                .id(todo.getId())
+                .version(todo.getVersion())
+                .title(todo.getTitle())
+                .description(todo.getDescription())
+                .completed(todo.getCompleted())
+                .userId(todo.getUserId())
+                .username(username)
+                .createdAt(todo.getCreatedAt())
+                .updatedAt(todo.getUpdatedAt())
+                .createdBy(todo.getCreatedBy())
+                .updatedBy(todo.getUpdatedBy())
+                .build();
+    }
+}
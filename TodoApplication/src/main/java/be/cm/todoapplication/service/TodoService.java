@@ -1,24 +1,26 @@
 package be.cm.todoapplication.service;
 
+import be.cm.todoapplication.config.AuthenticatedUser;
+import be.cm.todoapplication.dto.CursorPageDTO;
 import be.cm.todoapplication.dto.TodoDTO;
-import be.cm.todoapplication.dto.UserDTO;
 import be.cm.todoapplication.dto.messaging.NotificationMessage;
 import be.cm.todoapplication.model.Todo;
 import be.cm.todoapplication.model.User;
 import be.cm.todoapplication.repository.TodoRepository;
 import be.cm.todoapplication.repository.UserRepository;
+import be.cm.todoapplication.service.sync.SyncSingleFlight;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
@@ -31,44 +33,24 @@ public class TodoService {
 
     private final TodoRepository todoRepository;
     private final UserRepository userRepository;
-    private final RestTemplate restTemplate;
     private final TodoSyncService todoSyncService;
+    private final SyncSingleFlight syncSingleFlight;
     private final KafkaMessageService kafkaMessageService;
     private final WebSocketNotificationService webSocketNotificationService;
 
-    private static final String TODOS_API = "https://jsonplaceholder.typicode.com/todos";
-    private static final String USERS_API = "https://jsonplaceholder.typicode.com/users";
-
     /**
-     * Synchronisation avec JSONPlaceholder - pour admin uniquement
+     * Synchronisation avec JSONPlaceholder - pour admin uniquement.
+     * Les todos sont lus en flux et écrits au fil du téléchargement (voir TodoSyncService.syncFromSourceAsync).
+     * Attend la fin du sync, ou celle du sync déjà en cours.
      */
-    @Transactional
     public void syncFromJsonPlaceholder() {
         try {
             log.info("Démarrage de la synchronisation JSONPlaceholder");
 
-            TodoDTO[] todoDTOs = restTemplate.getForObject(TODOS_API, TodoDTO[].class);
-            UserDTO[] userDTOs = restTemplate.getForObject(USERS_API, UserDTO[].class);
-
-            if (todoDTOs == null || userDTOs == null) {
-                log.error("Échec de récupération des données JSONPlaceholder");
-                throw new RuntimeException("Impossible de récupérer les données JSONPlaceholder");
-            }
-
-            Map<Long, String> userMap = Arrays.stream(userDTOs)
-                    .collect(Collectors.toMap(UserDTO::getId, UserDTO::getName));
+            String username = getCurrentUser().username();
+            String batchId = syncSingleFlight.run(() -> todoSyncService.syncFromSourceAsync(username)).join();
 
-            int syncCount = 0;
-            for (TodoDTO dto : todoDTOs) {
-                try {
-                    todoSyncService.syncTodo(dto, userMap);
-                    syncCount++;
-                } catch (Exception e) {
-                    log.warn("Erreur sync todo ID {}: {}", dto.getId(), e.getMessage());
-                }
-            }
-
-            log.info("Synchronisation terminée: {} todos traités", syncCount);
+            log.info("Synchronisation terminée: batch {}", batchId);
         } catch (Exception e) {
             log.error("Erreur lors de la synchronisation: {}", e.getMessage());
             throw new RuntimeException("Erreur de synchronisation: " + e.getMessage());
@@ -80,36 +62,67 @@ public class TodoService {
      */
     @Transactional(readOnly = true)
     public Page<TodoDTO> getUserTodos(Pageable pageable, Boolean completed, String search) {
-        User currentUser = getCurrentUser();
-        boolean isAdmin = currentUser.getRole() == User.Role.ADMIN;
-        User userFilter = isAdmin ? null : currentUser;
+        CurrentUser currentUser = getCurrentUser();
+        User userFilter = currentUser.admin() ? null : currentUser.user();
 
         Page<Todo> todos;
 
         if (search != null && !search.trim().isEmpty()) {
-            todos = todoRepository.findByUserAndTitleContaining(userFilter, search.trim(), pageable);
+            // Résultats triés par pertinence : le tri demandé ne s'applique pas à la recherche
+            Long userId = userFilter != null ? userFilter.getId() : null;
+            todos = todoRepository.searchByRank(userId, completed, search.trim(),
+                    PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
         } else {
             todos = todoRepository.findByUserWithOptionalCompleted(userFilter, completed, pageable);
         }
 
         List<TodoDTO> todoDTOs = todos.getContent().stream()
-                .map(this::convertToDTO)
+                .map(TodoMapper::toDTO)
                 .collect(Collectors.toList());
 
         return new PageImpl<>(todoDTOs, pageable, todos.getTotalElements());
     }
 
+    /**
+     * Liste paginée par curseur, du plus récent au plus ancien : coût constant quelle que soit la profondeur
+     *
+     * @param cursor curseur renvoyé par la page précédente, {@code null} pour la première page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<TodoDTO> getUserTodosByCursor(String cursor, int size, Boolean completed) {
+        CurrentUser currentUser = getCurrentUser();
+        TodoCursor position = TodoCursor.decode(cursor);
+        Pageable pageable = PageRequest.of(0, size);
+
+        Slice<Todo> todos = currentUser.admin()
+                ? todoRepository.findKeysetPage(completed, position.createdAt(), position.id(), pageable)
+                : todoRepository.findKeysetPageByUser(currentUser.user(), completed,
+                        position.createdAt(), position.id(), pageable);
+
+        List<Todo> content = todos.getContent();
+        String nextCursor = todos.hasNext() && !content.isEmpty()
+                ? TodoCursor.after(content.get(content.size() - 1)).encode()
+                : null;
+
+        return CursorPageDTO.<TodoDTO>builder()
+                .content(content.stream().map(TodoMapper::toDTO).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasNext(todos.hasNext())
+                .size(size)
+                .build();
+    }
+
     /**
      * Récupère un todo par ID (vérifie l'ownership)
      */
     @Transactional(readOnly = true)
     public Optional<TodoDTO> getTodoById(Long id) {
-        User currentUser = getCurrentUser();
-        if (currentUser.getRole() == User.Role.ADMIN) {
-            return todoRepository.findById(id).map(this::convertToDTO);
+        CurrentUser currentUser = getCurrentUser();
+        if (currentUser.admin()) {
+            return todoRepository.findById(id).map(TodoMapper::toDTO);
         }
-        return todoRepository.findByIdAndUser(id, currentUser)
-                .map(this::convertToDTO);
+        return todoRepository.findByIdAndUser(id, currentUser.user())
+                .map(TodoMapper::toDTO);
     }
 
     /**
@@ -117,20 +130,21 @@ public class TodoService {
      */
     @Transactional
     public TodoDTO createTodo(TodoDTO todoDTO) {
-        User currentUser = getCurrentUser();
+        CurrentUser currentUser = getCurrentUser();
 
         Todo todo = Todo.builder()
                 .title(todoDTO.getTitle())
                 .description(todoDTO.getDescription())
                 .completed(todoDTO.getCompleted() != null ? todoDTO.getCompleted() : false)
-                .user(currentUser)
-                .createdBy(currentUser.getUsername())
+                .user(currentUser.user())
+                .createdBy(currentUser.username())
                 .build();
 
         Todo savedTodo = todoRepository.save(todo);
-        log.info("Nouveau todo créé: {} par {}", savedTodo.getId(), currentUser.getUsername());
+        log.info("Nouveau todo créé: {} par {}", savedTodo.getId(), currentUser.username());
 
-        return convertToDTO(savedTodo);
+        // Nom issu de l'authentification : la référence JPA de l'utilisateur reste non chargée
+        return TodoMapper.toDTO(savedTodo, currentUser.username());
     }
 
     /**
@@ -138,20 +152,20 @@ public class TodoService {
      */
     @Transactional
     public TodoDTO updateTodo(Long id, TodoDTO todoDTO) {
-        User currentUser = getCurrentUser();
-        Todo existingTodo = todoRepository.findByIdAndUser(id, currentUser)
+        CurrentUser currentUser = getCurrentUser();
+        Todo existingTodo = todoRepository.findByIdAndUser(id, currentUser.user())
                 .orElseThrow(() -> new RuntimeException("Todo non trouvé ou accès non autorisé"));
 
         // Mise à jour des champs
         existingTodo.setTitle(todoDTO.getTitle());
         existingTodo.setDescription(todoDTO.getDescription());
         existingTodo.setCompleted(todoDTO.getCompleted());
-        existingTodo.setUpdatedBy(currentUser.getUsername());
+        existingTodo.setUpdatedBy(currentUser.username());
 
         Todo updatedTodo = todoRepository.save(existingTodo);
-        log.info("Todo {} mis à jour par {}", id, currentUser.getUsername());
+        log.info("Todo {} mis à jour par {}", id, currentUser.username());
 
-        return convertToDTO(updatedTodo);
+        return TodoMapper.toDTO(updatedTodo);
     }
 
     /**
@@ -159,12 +173,12 @@ public class TodoService {
      */
     @Transactional
     public void deleteTodo(Long id) {
-        User currentUser = getCurrentUser();
-        Todo todo = todoRepository.findByIdAndUser(id, currentUser)
+        CurrentUser currentUser = getCurrentUser();
+        Todo todo = todoRepository.findByIdAndUser(id, currentUser.user())
                 .orElseThrow(() -> new RuntimeException("Todo non trouvé ou accès non autorisé"));
 
         todoRepository.delete(todo);
-        log.info("Todo {} supprimé par {}", id, currentUser.getUsername());
+        log.info("Todo {} supprimé par {}", id, currentUser.username());
     }
 
     /**
@@ -172,9 +186,8 @@ public class TodoService {
      */
     @Transactional(readOnly = true)
     public Map<String, Object> getUserStats() {
-        User currentUser = getCurrentUser();
-        boolean isAdmin = currentUser.getRole() == User.Role.ADMIN;
-        User userFilter = isAdmin ? null : currentUser;
+        CurrentUser currentUser = getCurrentUser();
+        User userFilter = currentUser.admin() ? null : currentUser.user();
 
         Map<String, Object> stats = new HashMap<>();
         stats.put("totalTodos", todoRepository.countByUserAndCompleted(userFilter, null));
@@ -185,60 +198,43 @@ public class TodoService {
     }
 
     /**
-     * Récupère l'utilisateur connecté
+     * Récupère l'utilisateur connecté.
+     * Avec un principal JWT ({@link AuthenticatedUser}), l'id et le rôle viennent du jeton et
+     * l'utilisateur est une référence JPA non chargée : aucune requête sur la table users.
      */
-    private User getCurrentUser() {
+    private CurrentUser getCurrentUser() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || !auth.isAuthenticated()) {
             throw new AccessDeniedException("Utilisateur non authentifié");
         }
 
+        if (auth.getPrincipal() instanceof AuthenticatedUser principal) {
+            return new CurrentUser(userRepository.getReferenceById(principal.id()),
+                    principal.username(), principal.role() == User.Role.ADMIN);
+        }
+
         String username = auth.getName();
-        return userRepository.findByUsername(username)
+        User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé: " + username));
+        return new CurrentUser(user, user.getUsername(), user.getRole() == User.Role.ADMIN);
     }
 
     /**
-     * Convertit une entité Todo en DTO
+     * Utilisateur courant : entité (ou référence) pour les requêtes, nom et rôle issus de l'authentification
      */
-    private TodoDTO convertToDTO(Todo todo) {
-        return TodoDTO.builder()
-                .id(todo.getId())
-                .title(todo.getTitle())
-                .description(todo.getDescription())
-                .completed(todo.getCompleted())
-                .userId(todo.getUserId())
-                .username(todo.getUsername())
-                .createdAt(todo.getCreatedAt())
-                .updatedAt(todo.getUpdatedAt())
-                .createdBy(todo.getCreatedBy())
-                .updatedBy(todo.getUpdatedBy())
-                .build();
+    private record CurrentUser(User user, String username, boolean admin) {
     }
 
     /**
-     * Synchronisation asynchrone avec JSONPlaceholder
+     * Synchronisation asynchrone avec JSONPlaceholder ; rattachée au sync en cours s'il y en a un
      */
-    @Async("todoSyncExecutor")
     public CompletableFuture<String> syncFromJsonPlaceholderAsync(String adminUsername) {
         try {
             log.info("Démarrage de la synchronisation asynchrone JSONPlaceholder par: {}", adminUsername);
 
-            TodoDTO[] todoDTOs = restTemplate.getForObject(TODOS_API, TodoDTO[].class);
-            UserDTO[] userDTOs = restTemplate.getForObject(USERS_API, UserDTO[].class);
-
-            if (todoDTOs == null || userDTOs == null) {
-                log.error("Échec de récupération des données JSONPlaceholder");
-                throw new RuntimeException("Impossible de récupérer les données JSONPlaceholder");
-            }
-
-            // Créer la map des utilisateurs
-            Map<Long, String> userMap = Arrays.stream(userDTOs)
-                    .collect(Collectors.toMap(UserDTO::getId, UserDTO::getUsername));
-
-            // Utiliser le service de synchronisation asynchrone
-            List<TodoDTO> todoList = Arrays.asList(todoDTOs);
-            CompletableFuture<String> syncResult = todoSyncService.syncTodosBatchAsync(adminUsername, todoList, userMap);
+            // Utiliser le service de synchronisation asynchrone, la source est lue en flux
+            CompletableFuture<String> syncResult =
+                    syncSingleFlight.run(() -> todoSyncService.syncFromSourceAsync(adminUsername));
 
             log.info("Synchronisation asynchrone démarrée avec succès");
             return syncResult;
@@ -250,22 +246,56 @@ public class TodoService {
     }
 
     /**
-     * Récupère tous les todos d'un utilisateur
+     * Compte les todos d'un utilisateur
      */
-    public List<TodoDTO> getAllTodosByUser(String username) {
-        try {
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé: " + username));
+    @Transactional(readOnly = true)
+    public long countTodosByUser(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé: " + username));
+        return todoRepository.countByUser(user);
+    }
 
-            List<Todo> todos = todoRepository.findByUser(user);
-            return todos.stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
+    /**
+     * Parcourt les todos d'un utilisateur par tranches de {@code chunkSize}.
+     * Chaque tranche est lue à la demande (keyset sur l'id), seule la tranche courante est en mémoire.
+     */
+    public Iterable<List<TodoDTO>> iterateTodosByUser(String username, int chunkSize) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé: " + username));
+        Pageable firstChunk = PageRequest.of(0, chunkSize);
+
+        return () -> new Iterator<>() {
+            private Long lastId = 0L;
+            private List<TodoDTO> nextChunk;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (nextChunk == null && !exhausted) {
+                    List<Todo> todos = todoRepository.findChunkByUserAfterId(user, lastId, firstChunk);
+                    if (todos.isEmpty()) {
+                        exhausted = true;
+                    } else {
+                        lastId = todos.get(todos.size() - 1).getId();
+                        exhausted = todos.size() < chunkSize;
+                        nextChunk = todos.stream()
+                                .map(TodoMapper::toDTO)
+                                .collect(Collectors.toList());
+                    }
+                }
+                return nextChunk != null;
+            }
 
-        } catch (Exception e) {
-            log.error("Erreur lors de la récupération des todos pour l'utilisateur {}: {}", username, e.getMessage());
-            throw e;
-        }
+            @Override
+            public List<TodoDTO> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<TodoDTO> chunk = nextChunk;
+                nextChunk = null;
+                return chunk;
+            }
+        };
     }
 
     /**
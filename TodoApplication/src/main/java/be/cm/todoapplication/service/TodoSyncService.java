@@ -3,144 +3,452 @@ package be.cm.todoapplication.service;
 import be.cm.todoapplication.dto.TodoDTO;
 import be.cm.todoapplication.dto.messaging.NotificationMessage;
 import be.cm.todoapplication.dto.messaging.TodoSyncMessage;
-import be.cm.todoapplication.model.Todo;
+import be.cm.todoapplication.model.SyncJob;
 import be.cm.todoapplication.model.User;
-import be.cm.todoapplication.repository.TodoRepository;
+import be.cm.todoapplication.repository.TodoBulkRepository;
+import be.cm.todoapplication.repository.TodoBulkRepository.TodoUpsert;
+import be.cm.todoapplication.repository.TodoBulkRepository.UpsertCounts;
+import be.cm.todoapplication.repository.UserBulkRepository;
 import be.cm.todoapplication.repository.UserRepository;
+import be.cm.todoapplication.service.sync.AdaptiveSyncThrottle;
+import be.cm.todoapplication.service.sync.ClusterSyncLock;
+import be.cm.todoapplication.service.sync.JsonArrayReader;
+import be.cm.todoapplication.service.sync.SyncCheckpoint;
+import be.cm.todoapplication.service.sync.SyncJobService;
+import be.cm.todoapplication.service.sync.SyncProgressAggregator;
+import be.cm.todoapplication.service.sync.SyncResult;
+import be.cm.todoapplication.service.sync.TodoSourceClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.UUID;
+import java.io.IOException;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TodoSyncService {
 
-    private final TodoRepository todoRepository;
+    private static final String SYNC_AUTHOR = "SYSTEM_SYNC";
+
+    private final TodoBulkRepository todoBulkRepository;
     private final UserRepository userRepository;
+    private final UserBulkRepository userBulkRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final AdaptiveSyncThrottle syncThrottle;
+    @Qualifier("todoSyncPartitionExecutor")
+    private final Executor partitionExecutor;
     private final KafkaMessageService kafkaMessageService;
     private final WebSocketNotificationService webSocketNotificationService;
+    private final TodoSourceClient sourceClient;
+    private final SyncJobService syncJobService;
+    private final ClusterSyncLock clusterSyncLock;
+    @Value("${app.sync.partitions:3}")
+    private final int syncPartitions;
 
     /**
-     * Synchronise un todo depuis JSONPlaceholder avec retry automatique
+     * Sync complet depuis {@link TodoSourceClient} : utilisateurs récupérés et résolus d'abord, puis todos
+     * lus en flux (voir {@link #syncTodoStream}). Les utilisateurs sont traités avant d'ouvrir le flux :
+     * la connexion des todos reste prise pendant toute l'écriture, elle ne doit pas en attendre une seconde.
+     * Si les todos n'ont pas changé depuis le dernier sync complet (304), aucun todo n'est lu ni écrit.
+     *
+     * Toujours lancé via {@link #syncFromSourceAsync}, sous {@link ClusterSyncLock}.
+     *
+     * Une reprise dont le point de contrôle ne correspond plus à la source relit le flux depuis le début.
+     *
+     * @param progress   reçoit le nombre de todos traités au fil des tranches
+     * @param checkpoint point de reprise du job
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void syncTodo(TodoDTO dto, Map<Long, String> userMap) {
-        int maxRetries = 3;
-        int attempts = 0;
+    private SyncResult syncFromSource(IntConsumer progress, SyncCheckpoint checkpoint) {
+        Map<Long, User> users = resolveSyncUsers(sourceClient.fetchUsers());
+        try {
+            return streamSourceTodos(users, progress, checkpoint);
+        } catch (SyncCheckpoint.MismatchException e) {
+            log.warn("{} : reprise du sync depuis le début de la source", e.getMessage());
+            checkpoint.restart();
+            return streamSourceTodos(users, progress, checkpoint);
+        }
+    }
 
-        while (attempts < maxRetries) {
-            try {
-                // Trouver ou créer l'utilisateur
-                String username = userMap.get(dto.getUserId());
-                if (username == null) {
-                    log.warn("Utilisateur non trouvé pour userId: {}", dto.getUserId());
-                    return;
-                }
+    private SyncResult streamSourceTodos(Map<Long, User> users, IntConsumer progress, SyncCheckpoint checkpoint) {
+        return sourceClient.streamTodos(
+                        todos -> syncTodoStream(todos, users, progress, checkpoint),
+                        result -> result.failed() == 0)
+                .orElse(SyncResult.EMPTY);
+    }
+
+    /**
+     * Synchronise l'état complet de la source depuis un flux, sans le charger en entier.
+     * Chaque todo lu est routé vers la voie de son utilisateur ; une voie pleine part en écriture sur
+     * todoSyncPartitionExecutor pendant que la lecture continue. Au plus deux fois plus de tranches que de voies
+     * sont en attente : les todos en mémoire sont bornés par la taille des tranches. Les id externes lus sont
+     * en revanche tous conservés (doublons, suppression des absents), un Long par todo de la source.
+     * Un id externe déjà lu est ignoré (le premier l'emporte). Les todos absents du flux sont supprimés
+     * si aucune tranche n'a échoué.
+     * Si la lecture échoue, les tranches en attente ne sont pas écrites et celles en cours sont attendues
+     * avant de propager l'erreur : plus rien n'écrit une fois le job marqué en échec et le verrou rendu.
+     *
+     * @param users      utilisateurs résolus par {@link #resolveSyncUsers}
+     * @param checkpoint les {@link SyncCheckpoint#position()} premiers todos du flux sont déjà écrits
+     *                   (reprise d'un job) : ils sont lus sans être réécrits
+     * @throws SyncCheckpoint.MismatchException si le dernier todo sauté n'est pas
+     *                   {@link SyncCheckpoint#lastExternalId()} : la source a changé depuis, rien n'est écrit
+     */
+    public SyncResult syncTodoStream(JsonArrayReader<TodoDTO> todos, Map<Long, User> users,
+                                     IntConsumer progress, SyncCheckpoint checkpoint) throws IOException {
+        int laneCount = Math.max(1, syncPartitions);
+        SyncProgressAggregator aggregator = new SyncProgressAggregator(laneCount, progress);
+        Semaphore pending = new Semaphore(laneCount * 2);
+        List<StreamLane> lanes = new ArrayList<>(laneCount);
+        for (int lane = 0; lane < laneCount; lane++) {
+            lanes.add(new StreamLane(aggregator.forPartition(lane)));
+        }
 
-                User user = findOrCreateUser(dto.getUserId(), username);
+        long resumeFrom = checkpoint.position();
+        if (resumeFrom > 0) {
+            log.info("Reprise du sync après les {} premiers todos de la source", resumeFrom);
+        }
 
-                // Synchroniser le todo par external_id
-                Optional<Todo> existingTodoOptional = todoRepository.findByExternalId(dto.getId());
-                if (existingTodoOptional.isPresent()) {
-                    updateExistingTodo(existingTodoOptional.get(), dto, user);
-                } else {
-                    createNewTodo(dto, user);
+        Set<Long> seen = new HashSet<>();
+        int duplicates = 0;
+        long position = 0;
+        AtomicBoolean cancelled = new AtomicBoolean();
+        boolean read = false;
+        try {
+            for (TodoDTO dto = todos.next(); dto != null; dto = todos.next(), position++) {
+                boolean duplicate = dto.getId() != null && !seen.add(dto.getId());
+                if (position < resumeFrom) {
+                    if (position == resumeFrom - 1 && !Objects.equals(dto.getId(), checkpoint.lastExternalId())) {
+                        throw new SyncCheckpoint.MismatchException("Todo externe " + dto.getId() + " en position "
+                                + position + " au lieu de " + checkpoint.lastExternalId() + " au point de contrôle");
+                    }
+                    continue;
+                }
+                if (duplicate) {
+                    log.warn("Todo externe {} en double dans la source, ignoré", dto.getId());
+                    duplicates++;
+                    commitCheckpoint(checkpoint, List.of(position), Collections.singletonList(dto.getId()));
+                    continue;
+                }
+                StreamLane lane = lanes.get(laneOf(dto, laneCount));
+                if (lane.buffer.isEmpty()) {
+                    lane.chunkSize = syncThrottle.nextChunkSize();
                 }
+                lane.add(position, dto);
+                if (lane.buffer.size() >= lane.chunkSize) {
+                    submit(lane, users, checkpoint, pending, cancelled);
+                }
+            }
+            if (position < resumeFrom) {
+                throw new SyncCheckpoint.MismatchException("Source de " + position
+                        + " todos, plus courte que le point de contrôle (" + resumeFrom + ")");
+            }
+            for (StreamLane lane : lanes) {
+                if (!lane.buffer.isEmpty()) {
+                    submit(lane, users, checkpoint, pending, cancelled);
+                }
+            }
+            read = true;
+        } finally {
+            if (!read) {
+                cancelled.set(true);
+                for (StreamLane lane : lanes) {
+                    lane.tail.handle((result, error) -> null).join();
+                }
+                log.warn("Lecture de la source interrompue après {} todos : tranches en attente abandonnées", position);
+            }
+        }
+
+        SyncResult result = new SyncResult(0, 0, 0, duplicates, 0, 0);
+        for (StreamLane lane : lanes) {
+            result = result.plus(lane.tail.join());
+        }
+        return deleteUnseen(result, seen);
+    }
+
+    /**
+     * Enchaîne l'écriture de la tranche en cours de la voie après ses tranches déjà en attente :
+     * les tranches d'une voie sont écrites dans l'ordre, une à la fois.
+     * Le permis est rendu quand l'étape se termine, même si elle échoue ou n'est jamais exécutée
+     * (étape précédente de la voie en échec) : sinon la lecture resterait bloquée sur {@code pending}
+     * en gardant le verrou du sync. Une étape qui démarre après {@code cancelled} n'écrit rien.
+     */
+    private void submit(StreamLane lane, Map<Long, User> users, SyncCheckpoint checkpoint, Semaphore pending,
+                        AtomicBoolean cancelled) {
+        try {
+            pending.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Synchronisation interrompue", e);
+        }
+        List<TodoDTO> chunk = lane.buffer;
+        List<Long> positions = lane.positions;
+        lane.buffer = new ArrayList<>();
+        lane.positions = new ArrayList<>();
+
+        CompletableFuture<SyncResult> written = lane.tail.thenApplyAsync(synced -> {
+            if (cancelled.get()) {
+                return synced;
+            }
+            SyncResult chunkResult = syncThrottledChunk(chunk, users);
+            if (chunkResult.failed() > 0) {
+                checkpoint.failed();
+            } else {
+                commitCheckpoint(checkpoint, positions, chunk.stream().map(TodoDTO::getId).toList());
+            }
+            SyncResult laneResult = synced.plus(chunkResult);
+            try {
+                lane.progress.accept(laneResult.processed());
+            } catch (RuntimeException e) {
+                log.warn("Notification de progression du sync impossible: {}", e.getMessage(), e);
+            }
+            return laneResult;
+        }, partitionExecutor);
+        written.whenComplete((result, error) -> pending.release());
+        lane.tail = written;
+    }
+
+    /**
+     * Enregistre l'avancée du point de contrôle. S'il ne peut pas être persisté, il est figé
+     * (la reprise refera plus de todos) mais le sync continue.
+     */
+    private static void commitCheckpoint(SyncCheckpoint checkpoint, List<Long> positions, List<Long> externalIds) {
+        try {
+            checkpoint.committed(positions, externalIds);
+        } catch (RuntimeException e) {
+            log.error("Point de contrôle du sync non enregistré, figé pour le reste du sync: {}", e.getMessage(), e);
+            checkpoint.failed();
+        }
+    }
 
-                log.debug("Todo {} synchronisé avec succès", dto.getId());
-                return; // Succès
+    /**
+     * Voie d'un sync en flux : tranche en cours de remplissage (lue par un seul thread)
+     * et chaîne des tranches soumises
+     */
+    private static final class StreamLane {
 
-            } catch (OptimisticLockingFailureException e) {
-                attempts++;
-                log.warn("Conflit de verrouillage optimiste pour todo {} - tentative {}/{}",
-                        dto.getId(), attempts, maxRetries);
+        private final IntConsumer progress;
+        private List<TodoDTO> buffer = new ArrayList<>();
+        private List<Long> positions = new ArrayList<>();
+        private int chunkSize;
+        private CompletableFuture<SyncResult> tail = CompletableFuture.completedFuture(SyncResult.EMPTY);
 
-                if (attempts >= maxRetries) {
-                    log.error("Échec de synchronisation du todo {} après {} tentatives",
-                             dto.getId(), maxRetries);
-                    return;
-                }
+        private StreamLane(IntConsumer progress) {
+            this.progress = progress;
+        }
 
-                try {
-                    Thread.sleep(100 * attempts); // Backoff progressif
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    log.error("Thread interrompu pendant la synchronisation du todo {}", dto.getId());
-                    return;
-                }
-            } catch (Exception e) {
-                log.error("Erreur lors de la synchronisation du todo {}: {}", dto.getId(), e.getMessage(), e);
-                return;
-            }
+        private void add(long position, TodoDTO dto) {
+            positions.add(position);
+            buffer.add(dto);
         }
     }
 
     /**
-     * Trouve un utilisateur existant ou en crée un nouveau pour la synchronisation
+     * Supprime les todos synchronisés absents de la source, seulement après un sync sans tranche en erreur
      */
-    private User findOrCreateUser(Long userId, String username) {
-        // Chercher d'abord par username (plus fiable)
-        Optional<User> existingUser = userRepository.findByUsername(username);
-        if (existingUser.isPresent()) {
-            return existingUser.get();
+    private SyncResult deleteUnseen(SyncResult result, Set<Long> seen) {
+        if (result.failed() > 0) {
+            log.warn("{} todos en erreur : suppression des todos absents de la source reportée", result.failed());
+            return result;
+        }
+        if (seen.isEmpty()) {
+            log.warn("Source vide : aucun todo supprimé");
+            return result;
         }
 
-        // Créer un utilisateur temporaire pour la synchronisation JSONPlaceholder
-        User newUser = User.builder()
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Integer deleted = transaction.execute(status -> todoBulkRepository.deleteExternalNotIn(seen));
+        return result.withDeleted(deleted != null ? deleted : 0);
+    }
+
+    private static int laneOf(TodoDTO dto, int lanes) {
+        return dto.getUserId() == null ? 0 : Math.floorMod(Long.hashCode(dto.getUserId()), lanes);
+    }
+
+    /**
+     * Écrit une tranche et rapporte sa durée au throttle ; une tranche en erreur est annulée,
+     * journalisée et comptée en échec
+     */
+    private SyncResult syncThrottledChunk(List<TodoDTO> chunk, Map<Long, User> users) {
+        long start = System.nanoTime();
+        try {
+            SyncResult result = syncTodosChunk(chunk, users);
+            syncThrottle.onChunkCommitted(chunk.size(), System.nanoTime() - start);
+            return result;
+        } catch (Exception e) {
+            log.error("Erreur lors de la synchronisation d'une tranche de {} todos (ids {} à {}): {}",
+                    chunk.size(), chunk.get(0).getId(), chunk.get(chunk.size() - 1).getId(), e.getMessage(), e);
+            return SyncResult.failed(chunk.size());
+        }
+    }
+
+    /**
+     * Phase préalable au sync : charge les utilisateurs référencés en une requête, crée les manquants
+     * en un batch puis les relit. Aucune recherche d'utilisateur n'a lieu ensuite par todo.
+     *
+     * @param userMap id externe de l'utilisateur -> username
+     * @return id externe -> utilisateur local (absent si le compte n'a pas pu être créé)
+     */
+    public Map<Long, User> resolveSyncUsers(Map<Long, String> userMap) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Map<String, User> byUsername = transaction.execute(status -> {
+            Set<String> usernames = userMap.values().stream()
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+
+            Map<String, User> found = userRepository.findByUsernameIn(usernames).stream()
+                    .collect(Collectors.toMap(User::getUsername, Function.identity()));
+
+            List<User> missing = usernames.stream()
+                    .filter(username -> !found.containsKey(username))
+                    .map(TodoSyncService::newSyncUser)
+                    .collect(Collectors.toList());
+
+            if (!missing.isEmpty()) {
+                userBulkRepository.insertIfAbsent(missing);
+                userRepository.findByUsernameIn(missing.stream().map(User::getUsername).toList())
+                        .forEach(user -> found.put(user.getUsername(), user));
+                log.info("{} utilisateurs créés pour la synchronisation", missing.size());
+            }
+            return found;
+        });
+
+        Map<Long, User> users = new HashMap<>();
+        userMap.forEach((externalUserId, username) -> {
+            User user = username != null ? byUsername.get(username) : null;
+            if (user != null) {
+                users.put(externalUserId, user);
+            } else {
+                log.warn("Utilisateur {} ({}) non résolu, ses todos seront ignorés", externalUserId, username);
+            }
+        });
+        return users;
+    }
+
+    /**
+     * Synchronise une tranche de todos en une transaction : upsert ensembliste par external_id
+     * (INSERT ... ON CONFLICT DO UPDATE) au lieu d'un SELECT puis d'un save par todo.
+     * Les todos identiques à la source (titre, statut, utilisateur) ne sont pas réécrits.
+     *
+     * @param users utilisateurs résolus par {@link #resolveSyncUsers}
+     */
+    public SyncResult syncTodosChunk(List<TodoDTO> chunk, Map<Long, User> users) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        SyncResult result = transaction.execute(status -> {
+            // Dédoublonnage par external_id (dernier gagnant) : une ligne ne peut être upsertée deux fois par batch
+            Map<Long, TodoUpsert> rows = new LinkedHashMap<>();
+
+            for (TodoDTO dto : chunk) {
+                if (dto.getId() == null || dto.getTitle() == null || dto.getTitle().isBlank()) {
+                    log.warn("Todo externe ignoré (id ou titre manquant): {}", dto.getId());
+                    continue;
+                }
+                User user = users.get(dto.getUserId());
+                if (user == null) {
+                    log.warn("Utilisateur non trouvé pour userId: {}", dto.getUserId());
+                    continue;
+                }
+                rows.put(dto.getId(), new TodoUpsert(dto.getId(), dto.getTitle(),
+                        Boolean.TRUE.equals(dto.getCompleted()), user.getId()));
+            }
+
+            UpsertCounts counts = rows.isEmpty()
+                    ? new UpsertCounts(0, 0)
+                    : todoBulkRepository.upsertChangedByExternalId(new ArrayList<>(rows.values()), SYNC_AUTHOR);
+            int unchanged = rows.size() - counts.inserted() - counts.updated();
+            return new SyncResult(counts.inserted(), counts.updated(), unchanged, chunk.size() - rows.size(), 0, 0);
+        });
+
+        log.debug("Tranche de {} todos synchronisée: {}", chunk.size(), result);
+        return result != null ? result : SyncResult.EMPTY;
+    }
+
+    /**
+     * Utilisateur temporaire pour la synchronisation JSONPlaceholder
+     */
+    private static User newSyncUser(String username) {
+        return User.builder()
                 .username(username)
                 .email(username.toLowerCase() + "@jsonplaceholder.fake")
                 .password("$2a$10$disabled") // Mot de passe désactivé
                 .role(User.Role.USER)
                 .enabled(false) // Compte désactivé car c'est juste pour la sync
                 .build();
-
-        return userRepository.save(newUser);
     }
 
     /**
-     * Met à jour un todo existant
+     * Sync complet asynchrone depuis la source lue en flux, avec notifications temps réel.
+     * Le job est persisté avec son point de contrôle : interrompu, il est repris par
+     * {@link #resumeInterruptedSyncAsync}. Le nombre total de todos n'est connu qu'à la fin.
+     * A déclencher via {@link be.cm.todoapplication.service.sync.SyncSingleFlight}.
+     *
+     * @return le batchId du sync, ou celui du sync en cours sur un autre nœud
      */
-    private void updateExistingTodo(Todo existingTodo, TodoDTO dto, User user) {
-        existingTodo.setTitle(dto.getTitle());
-        existingTodo.setCompleted(dto.getCompleted());
-        existingTodo.setUser(user);
-        existingTodo.setUpdatedBy("SYSTEM_SYNC");
-
-        todoRepository.save(existingTodo);
+    @Async("todoSyncExecutor")
+    public CompletableFuture<String> syncFromSourceAsync(String userId) {
+        return withClusterLock(() -> resumeSyncJob(syncJobService.start(SyncJob.Kind.SOURCE, userId)));
     }
 
     /**
-     * Crée un nouveau todo
+     * Reprend à son point de contrôle le job SOURCE laissé en cours par une JVM arrêtée, s'il y en a un
+     *
+     * @return le batchId repris, {@code null} si aucun job n'était à reprendre
      */
-    private void createNewTodo(TodoDTO dto, User user) {
-        Todo newTodo = Todo.builder()
-                .externalId(dto.getId()) // Mapper l'ID JSONPlaceholder vers externalId
-                .title(dto.getTitle())
-                .completed(dto.getCompleted())
-                .user(user)
-                .createdBy("SYSTEM_SYNC")
-                .build();
+    @Async("todoSyncExecutor")
+    public CompletableFuture<String> resumeInterruptedSyncAsync() {
+        // Sous le verrou : un job RUNNING ne peut plus appartenir à un nœud vivant
+        return withClusterLock(() -> syncJobService.claimResumable()
+                .map(job -> {
+                    log.info("Reprise du job de synchronisation {} au todo {} (dernier external_id {})",
+                            job.getId(), job.getCheckpointPosition(), job.getLastExternalId());
+                    return resumeSyncJob(job);
+                })
+                .orElseGet(() -> CompletableFuture.completedFuture(null)));
+    }
+
+    private CompletableFuture<String> withClusterLock(Supplier<CompletableFuture<String>> sync) {
+        try (ClusterSyncLock.Lease lease = clusterSyncLock.tryAcquire()) {
+            if (lease == null) {
+                String running = syncJobService.findRunning().map(SyncJob::getId).orElse(null);
+                log.info("Synchronisation déjà en cours sur un autre nœud (batch {}), rien à lancer", running);
+                return CompletableFuture.completedFuture(running);
+            }
+            return sync.get();
+        }
+    }
 
-        todoRepository.save(newTodo);
+    private CompletableFuture<String> resumeSyncJob(SyncJob job) {
+        SyncCheckpoint checkpoint = syncJobService.checkpoint(job);
+        return runBatch(job, progress -> syncFromSource(progress, checkpoint));
     }
 
     /**
-     * Synchronisation asynchrone en lot avec notifications temps réel
+     * @param job  job persisté ; son id sert de batchId
+     * @param sync sync à exécuter, avec le callback de progression ; le total n'est connu qu'à la fin
      */
-    @Async("todoSyncExecutor")
-    public CompletableFuture<String> syncTodosBatchAsync(String userId, List<TodoDTO> todos, Map<Long, String> userMap) {
-        String batchId = UUID.randomUUID().toString();
+    private CompletableFuture<String> runBatch(SyncJob job, Function<IntConsumer, SyncResult> sync) {
+        String userId = job.getRequestedBy();
+        String batchId = job.getId();
 
         try {
             log.info("Starting async batch sync for user: {} with batch: {}", userId, batchId);
@@ -150,68 +458,56 @@ public class TodoSyncService {
             kafkaMessageService.sendTodoSyncMessage(startMessage);
 
             // Notification WebSocket de début
-            webSocketNotificationService.sendTodoSyncUpdate(userId, batchId, 0, todos.size());
-
-            int processed = 0;
-            int batchSize = 10; // Traiter par lots de 10
-
-            for (int i = 0; i < todos.size(); i += batchSize) {
-                int endIndex = Math.min(i + batchSize, todos.size());
-                List<TodoDTO> batch = todos.subList(i, endIndex);
-
-                // Traiter le lot
-                for (TodoDTO todo : batch) {
-                    try {
-                        syncTodo(todo, userMap);
-                        processed++;
-
-                        // Notification de progression toutes les 5 todos
-                        if (processed % 5 == 0) {
-                            webSocketNotificationService.sendTodoSyncUpdate(userId, batchId, processed, todos.size());
-                        }
-
-                    } catch (Exception e) {
-                        log.error("Error syncing todo {}: {}", todo.getId(), e.getMessage());
-                    }
-                }
-
-                // Pause entre les lots pour éviter la surcharge
-                Thread.sleep(100);
-            }
-
-            // Message de fin de synchronisation
-            TodoSyncMessage completedMessage = new TodoSyncMessage(
-                userId, TodoSyncMessage.SyncAction.COMPLETE_SYNC, batchId,
-                todos.size(), processed, TodoSyncMessage.SyncStatus.COMPLETED,
-                null, java.time.LocalDateTime.now()
-            );
+            webSocketNotificationService.sendTodoSyncUpdate(userId, batchId, 0, 0);
+
+            SyncResult result = sync.apply(
+                    synced -> webSocketNotificationService.sendTodoSyncUpdate(userId, batchId, synced, 0));
+            int processed = result.processed();
+            int total = result.total();
+
+            // Message de fin de synchronisation, avec le détail du delta
+            TodoSyncMessage completedMessage = TodoSyncMessage.builder()
+                    .userId(userId)
+                    .action(TodoSyncMessage.SyncAction.COMPLETE_SYNC)
+                    .batchId(batchId)
+                    .totalTodos(total)
+                    .processedTodos(processed)
+                    .createdTodos(result.created())
+                    .updatedTodos(result.updated())
+                    .unchangedTodos(result.unchanged())
+                    .deletedTodos(result.deleted())
+                    .status(TodoSyncMessage.SyncStatus.COMPLETED)
+                    .timestamp(java.time.LocalDateTime.now())
+                    .build();
             kafkaMessageService.sendTodoSyncMessage(completedMessage);
 
             // Notification finale
-            webSocketNotificationService.sendTodoSyncUpdate(userId, batchId, processed, todos.size());
+            webSocketNotificationService.sendTodoSyncUpdate(userId, batchId, processed, total);
 
             // Notification générale
             NotificationMessage notification = NotificationMessage.create(
                 userId,
                 NotificationMessage.NotificationType.SYNC_COMPLETED,
                 "Synchronization Complete",
-                String.format("Successfully synchronized %d/%d todos", processed, todos.size()),
+                String.format("Successfully synchronized %d/%d todos", processed, total),
                 batchId
             );
             kafkaMessageService.sendNotificationMessage(notification);
 
-            log.info("Completed async batch sync for user: {} with batch: {}, processed: {}/{}",
-                    userId, batchId, processed, todos.size());
+            syncJobService.complete(job, result);
+            log.info("Completed async batch sync for user: {} with batch: {}, processed: {}/{} ({})",
+                    userId, batchId, processed, total, result);
 
             return CompletableFuture.completedFuture(batchId);
 
         } catch (Exception e) {
             log.error("Error in async batch sync for user: {} with batch: {}", userId, batchId, e);
+            syncJobService.fail(job, e.getMessage());
 
             // Message d'erreur
             TodoSyncMessage failedMessage = new TodoSyncMessage(
                 userId, TodoSyncMessage.SyncAction.COMPLETE_SYNC, batchId,
-                todos.size(), 0, TodoSyncMessage.SyncStatus.FAILED,
+                0, 0, TodoSyncMessage.SyncStatus.FAILED,
                 e.getMessage(), java.time.LocalDateTime.now()
             );
             kafkaMessageService.sendTodoSyncMessage(failedMessage);
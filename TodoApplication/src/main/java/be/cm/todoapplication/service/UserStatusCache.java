@@ -0,0 +1,69 @@
+package be.cm.todoapplication.service;
+
+import be.cm.todoapplication.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache borné, à durée de vie limitée, du flag {@code enabled} des utilisateurs.
+ * Remplace le chargement complet de l'utilisateur à chaque requête authentifiée.
+ * <p>
+ * Aucune éviction explicite : l'application ne modifie ni ne supprime de compte existant. Un compte
+ * désactivé ou supprimé en base est refusé au plus tard après {@code app.security.user-status-cache.ttl} ;
+ * le rôle est lu dans le token, un changement de rôle n'est vu qu'à son expiration ({@code app.jwt.expiration}).
+ */
+@Service
+@Slf4j
+public class UserStatusCache {
+
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    // LRU en ordre d'accès, protégé par le verrou de l'instance
+    private final LinkedHashMap<Long, Entry> entries;
+
+    public UserStatusCache(UserRepository userRepository,
+                           @Value("${app.security.user-status-cache.ttl:60s}") Duration ttl,
+                           @Value("${app.security.user-status-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > UserStatusCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Indique si l'utilisateur existe et est actif ; interroge la base au plus une fois par TTL
+     */
+    public boolean isEnabled(Long userId) {
+        long now = System.nanoTime();
+        synchronized (this) {
+            Entry entry = entries.get(userId);
+            if (entry != null && now - entry.loadedAt() < ttlNanos) {
+                return entry.enabled();
+            }
+        }
+
+        boolean enabled = userRepository.findEnabledById(userId).orElse(false);
+        synchronized (this) {
+            entries.put(userId, new Entry(enabled, now));
+        }
+        if (!enabled) {
+            log.debug("Utilisateur {} inexistant ou désactivé", userId);
+        }
+        return enabled;
+    }
+
+    private record Entry(boolean enabled, long loadedAt) {
+    }
+}
@@ -56,7 +56,9 @@ public class WebSocketNotificationService {
                 userId,
                 NotificationMessage.NotificationType.SYNC_COMPLETED,
                 "Todo Sync Progress",
-                String.format("Synchronized %d/%d todos", processed, total),
+                total > 0
+                        ? String.format("Synchronized %d/%d todos", processed, total)
+                        : String.format("Synchronized %d todos", processed),
                 new TodoSyncUpdateData(batchId, processed, total)
         );
         sendNotificationToUser(userId, notification);
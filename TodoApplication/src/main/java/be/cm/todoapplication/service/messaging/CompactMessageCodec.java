@@ -0,0 +1,329 @@
+package be.cm.todoapplication.service.messaging;
+
+import be.cm.todoapplication.dto.messaging.NotificationMessage;
+import be.cm.todoapplication.dto.messaging.PdfProcessingMessage;
+import be.cm.todoapplication.dto.messaging.TodoSyncMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Format binaire des messages Kafka (notifications, progression PDF, progression du sync).
+ * <p>
+ * Entête : octet magique {@link #MAGIC}, version du schéma, type du message ; puis les champs dans
+ * l'ordre du schéma. Entiers en varint (zigzag), chaînes en UTF-8 préfixées de leur longueur,
+ * enums par ordinal, date en secondes + nanosecondes. Les valeurs nulles coûtent un octet.
+ * <p>
+ * Évolution du schéma : les nouveaux champs s'ajoutent en fin de message avec une nouvelle version,
+ * les constantes d'enum en fin d'enum. Un décodeur ignore les octets qu'il ne connaît pas,
+ * et ne lit un champ ajouté que si la version du message le contient.
+ */
+public final class CompactMessageCodec {
+
+    /**
+     * Ne peut pas commencer un document JSON : distingue les deux formats sur un même topic
+     */
+    public static final byte MAGIC = (byte) 0xC7;
+    public static final byte VERSION = 1;
+
+    private static final byte TYPE_NOTIFICATION = 1;
+    private static final byte TYPE_PDF_PROCESSING = 2;
+    private static final byte TYPE_TODO_SYNC = 3;
+
+    // Champ libre NotificationMessage.data, encodé en JSON comme avec JsonSerializer
+    private static final ObjectMapper DATA_MAPPER = JacksonUtils.enhancedObjectMapper();
+
+    private CompactMessageCodec() {
+    }
+
+    public static boolean isCompact(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(Object message) {
+        if (message instanceof NotificationMessage notification) {
+            return encodeNotification(notification);
+        }
+        if (message instanceof PdfProcessingMessage pdf) {
+            return encodePdfProcessing(pdf);
+        }
+        if (message instanceof TodoSyncMessage sync) {
+            return encodeTodoSync(sync);
+        }
+        throw new SerializationException("Type de message non supporté: "
+                + (message == null ? null : message.getClass().getName()));
+    }
+
+    public static Object decode(byte[] data) {
+        if (!isCompact(data) || data.length < 3) {
+            throw new SerializationException("Message binaire invalide");
+        }
+        Input in = new Input(data, 3);
+        int version = data[1];
+        if (version < 1) {
+            throw new SerializationException("Version de schéma invalide: " + version);
+        }
+        try {
+            return switch (data[2]) {
+                case TYPE_NOTIFICATION -> decodeNotification(in);
+                case TYPE_PDF_PROCESSING -> decodePdfProcessing(in);
+                case TYPE_TODO_SYNC -> decodeTodoSync(in);
+                default -> throw new SerializationException("Type de message inconnu: " + data[2]);
+            };
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new SerializationException("Message binaire tronqué", e);
+        }
+    }
+
+    private static byte[] encodeNotification(NotificationMessage message) {
+        Output out = new Output(TYPE_NOTIFICATION);
+        out.writeString(message.getUserId());
+        out.writeEnum(message.getType());
+        out.writeString(message.getTitle());
+        out.writeString(message.getMessage());
+        out.writeBytes(writeData(message.getData()));
+        out.writeTimestamp(message.getTimestamp());
+        return out.toByteArray();
+    }
+
+    private static NotificationMessage decodeNotification(Input in) {
+        NotificationMessage message = new NotificationMessage();
+        message.setUserId(in.readString());
+        message.setType(in.readEnum(NotificationMessage.NotificationType.values()));
+        message.setTitle(in.readString());
+        message.setMessage(in.readString());
+        message.setData(readData(in.readBytes()));
+        message.setTimestamp(in.readTimestamp());
+        return message;
+    }
+
+    private static byte[] encodePdfProcessing(PdfProcessingMessage message) {
+        Output out = new Output(TYPE_PDF_PROCESSING);
+        out.writeString(message.getTaskId());
+        out.writeString(message.getUserId());
+        out.writeString(message.getTodoId());
+        out.writeString(message.getFileName());
+        out.writeString(message.getFilePath());
+        out.writeEnum(message.getStatus());
+        out.writeString(message.getErrorMessage());
+        out.writeTimestamp(message.getTimestamp());
+        out.writeNullableLong(message.getProcessedRows());
+        out.writeNullableLong(message.getTotalRows());
+        out.writeNullableLong(message.getPageCount() == null ? null : message.getPageCount().longValue());
+        return out.toByteArray();
+    }
+
+    private static PdfProcessingMessage decodePdfProcessing(Input in) {
+        PdfProcessingMessage message = new PdfProcessingMessage();
+        message.setTaskId(in.readString());
+        message.setUserId(in.readString());
+        message.setTodoId(in.readString());
+        message.setFileName(in.readString());
+        message.setFilePath(in.readString());
+        message.setStatus(in.readEnum(PdfProcessingMessage.ProcessingStatus.values()));
+        message.setErrorMessage(in.readString());
+        message.setTimestamp(in.readTimestamp());
+        message.setProcessedRows(in.readNullableLong());
+        message.setTotalRows(in.readNullableLong());
+        Long pageCount = in.readNullableLong();
+        message.setPageCount(pageCount == null ? null : pageCount.intValue());
+        return message;
+    }
+
+    private static byte[] encodeTodoSync(TodoSyncMessage message) {
+        Output out = new Output(TYPE_TODO_SYNC);
+        out.writeString(message.getUserId());
+        out.writeEnum(message.getAction());
+        out.writeString(message.getBatchId());
+        out.writeVarLong(message.getTotalTodos());
+        out.writeVarLong(message.getProcessedTodos());
+        out.writeEnum(message.getStatus());
+        out.writeString(message.getErrorMessage());
+        out.writeTimestamp(message.getTimestamp());
+        out.writeVarLong(message.getCreatedTodos());
+        out.writeVarLong(message.getUpdatedTodos());
+        out.writeVarLong(message.getUnchangedTodos());
+        out.writeVarLong(message.getDeletedTodos());
+        return out.toByteArray();
+    }
+
+    private static TodoSyncMessage decodeTodoSync(Input in) {
+        TodoSyncMessage message = new TodoSyncMessage();
+        message.setUserId(in.readString());
+        message.setAction(in.readEnum(TodoSyncMessage.SyncAction.values()));
+        message.setBatchId(in.readString());
+        message.setTotalTodos((int) in.readVarLong());
+        message.setProcessedTodos((int) in.readVarLong());
+        message.setStatus(in.readEnum(TodoSyncMessage.SyncStatus.values()));
+        message.setErrorMessage(in.readString());
+        message.setTimestamp(in.readTimestamp());
+        message.setCreatedTodos((int) in.readVarLong());
+        message.setUpdatedTodos((int) in.readVarLong());
+        message.setUnchangedTodos((int) in.readVarLong());
+        message.setDeletedTodos((int) in.readVarLong());
+        return message;
+    }
+
+    private static byte[] writeData(Object data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return DATA_MAPPER.writeValueAsBytes(data);
+        } catch (IOException e) {
+            throw new SerializationException("Sérialisation des données de notification impossible", e);
+        }
+    }
+
+    private static Object readData(byte[] json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return DATA_MAPPER.readValue(json, Object.class);
+        } catch (IOException e) {
+            throw new SerializationException("Lecture des données de notification impossible", e);
+        }
+    }
+
+    private static final class Output {
+
+        private byte[] buffer = new byte[128];
+        private int position;
+
+        Output(byte type) {
+            buffer[0] = MAGIC;
+            buffer[1] = VERSION;
+            buffer[2] = type;
+            position = 3;
+        }
+
+        void writeVarLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            ensureCapacity(10);
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[position++] = (byte) zigzag;
+        }
+
+        void writeNullableLong(Long value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) (value == null ? 0 : 1);
+            if (value != null) {
+                writeVarLong(value);
+            }
+        }
+
+        void writeEnum(Enum<?> value) {
+            writeVarLong(value == null ? 0 : value.ordinal() + 1);
+        }
+
+        void writeString(String value) {
+            writeBytes(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void writeBytes(byte[] value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            writeVarLong(value.length + 1L);
+            ensureCapacity(value.length);
+            System.arraycopy(value, 0, buffer, position, value.length);
+            position += value.length;
+        }
+
+        void writeTimestamp(LocalDateTime value) {
+            if (value == null) {
+                writeNullableLong(null);
+                return;
+            }
+            writeNullableLong(value.toEpochSecond(ZoneOffset.UTC));
+            writeVarLong(value.getNano());
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        long readVarLong() {
+            long zigzag = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer[position++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+            }
+            throw new SerializationException("Varint invalide");
+        }
+
+        Long readNullableLong() {
+            return buffer[position++] == 0 ? null : readVarLong();
+        }
+
+        <E extends Enum<E>> E readEnum(E[] values) {
+            long ordinal = readVarLong();
+            if (ordinal == 0) {
+                return null;
+            }
+            if (ordinal > values.length) {
+                throw new SerializationException("Valeur d'enum inconnue: " + (ordinal - 1)
+                        + " pour " + values[0].getDeclaringClass().getSimpleName());
+            }
+            return values[(int) ordinal - 1];
+        }
+
+        String readString() {
+            byte[] bytes = readBytes();
+            return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        byte[] readBytes() {
+            long length = readVarLong();
+            if (length == 0) {
+                return null;
+            }
+            int size = (int) length - 1;
+            if (size < 0 || size > buffer.length - position) {
+                throw new SerializationException("Message binaire tronqué");
+            }
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + size);
+            position += size;
+            return bytes;
+        }
+
+        LocalDateTime readTimestamp() {
+            Long epochSecond = readNullableLong();
+            if (epochSecond == null) {
+                return null;
+            }
+            return LocalDateTime.ofEpochSecond(epochSecond, (int) readVarLong(), ZoneOffset.UTC);
+        }
+    }
+}
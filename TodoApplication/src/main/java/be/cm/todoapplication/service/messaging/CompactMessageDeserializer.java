@@ -0,0 +1,79 @@
+package be.cm.todoapplication.service.messaging;
+
+import be.cm.todoapplication.config.KafkaConfig;
+import be.cm.todoapplication.dto.messaging.NotificationMessage;
+import be.cm.todoapplication.dto.messaging.PdfProcessingMessage;
+import be.cm.todoapplication.dto.messaging.TodoSyncMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Désérialiseur des topics applicatifs : format {@link CompactMessageCodec}, ou JSON pour les records
+ * écrits par JsonSerializer (avant le passage au binaire, ou avec app.kafka.codec=json).
+ * Le JSON est lu directement en objet, sans passer par une String.
+ */
+public class CompactMessageDeserializer implements Deserializer<Object> {
+
+    private static final Map<String, Class<?>> TYPES_BY_TOPIC = Map.of(
+            KafkaConfig.NOTIFICATION_TOPIC, NotificationMessage.class,
+            KafkaConfig.PDF_PROCESSING_TOPIC, PdfProcessingMessage.class,
+            KafkaConfig.TODO_SYNC_TOPIC, TodoSyncMessage.class);
+
+    // Seuls les types connus sont acceptés depuis l'entête __TypeId__ de JsonSerializer
+    private static final Map<String, Class<?>> TYPES_BY_NAME = Map.of(
+            NotificationMessage.class.getName(), NotificationMessage.class,
+            PdfProcessingMessage.class.getName(), PdfProcessingMessage.class,
+            TodoSyncMessage.class.getName(), TodoSyncMessage.class);
+
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (CompactMessageCodec.isCompact(data)) {
+            return CompactMessageCodec.decode(data);
+        }
+        return readJson(topic, headers, data);
+    }
+
+    private Object readJson(String topic, Headers headers, byte[] data) {
+        Class<?> type = jsonType(topic, headers);
+        try {
+            return objectMapper.readValue(data, type);
+        } catch (IOException e) {
+            throw new SerializationException("Lecture JSON impossible sur " + topic + " (" + type.getSimpleName() + ")", e);
+        }
+    }
+
+    private static Class<?> jsonType(String topic, Headers headers) {
+        Header typeId = headers == null ? null : headers.lastHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME);
+        if (typeId != null) {
+            Class<?> type = TYPES_BY_NAME.get(new String(typeId.value(), StandardCharsets.UTF_8));
+            if (type != null) {
+                return type;
+            }
+        }
+        // Les topics de retry et de dead letter portent le même type que leur topic applicatif
+        Class<?> type = TYPES_BY_TOPIC.get(KafkaConfig.mainTopic(topic));
+        if (type == null) {
+            throw new SerializationException("Type de message inconnu pour le topic " + topic);
+        }
+        return type;
+    }
+}
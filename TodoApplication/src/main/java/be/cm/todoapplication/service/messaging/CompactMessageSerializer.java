@@ -0,0 +1,14 @@
+package be.cm.todoapplication.service.messaging;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Sérialiseur Kafka au format {@link CompactMessageCodec} (app.kafka.codec=binary)
+ */
+public class CompactMessageSerializer implements Serializer<Object> {
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return data == null ? null : CompactMessageCodec.encode(data);
+    }
+}
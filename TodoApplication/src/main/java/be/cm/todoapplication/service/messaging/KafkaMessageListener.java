@@ -7,144 +7,402 @@ import be.cm.todoapplication.dto.messaging.TodoSyncMessage;
 import be.cm.todoapplication.service.WebSocketNotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class KafkaMessageListener {
 
+    // Une seule des deux variantes consomme chaque topic (même groupe), selon app.kafka.listener.batch
+    static final String BATCH_MODE = "${app.kafka.listener.batch:true}";
+    static final String RECORD_MODE = "#{!${app.kafka.listener.batch:true}}";
+
+    // Threads consommateurs par instance, par défaut un par partition du topic
+    static final String PDF_PROCESSING_CONCURRENCY =
+            "${app.kafka.topics.pdf-processing.concurrency:${app.kafka.topics.pdf-processing.partitions:3}}";
+    static final String TODO_SYNC_CONCURRENCY =
+            "${app.kafka.topics.todo-sync.concurrency:${app.kafka.topics.todo-sync.partitions:3}}";
+    static final String NOTIFICATION_CONCURRENCY =
+            "${app.kafka.topics.notifications.concurrency:${app.kafka.topics.notifications.partitions:3}}";
+
+    // Une étape de retry par listener : les records d'une étape ont tous le même délai, attendre l'échéance
+    // du premier ne retarde pas les suivants
+    static final String RETRY_STAGE_0 = "#{T(be.cm.todoapplication.config.KafkaConfig).retryTopics(0)}";
+    static final String RETRY_STAGE_1 = "#{T(be.cm.todoapplication.config.KafkaConfig).retryTopics(1)}";
+    static final String RETRY_STAGE_2 = "#{T(be.cm.todoapplication.config.KafkaConfig).retryTopics(2)}";
+
+    // Attente avant de relivrer la fin d'un lot dont un record n'a pas pu être republié
+    static final Duration REDELIVERY_DELAY = Duration.ofSeconds(1);
+
+    // Cause enregistrée pour un record du lot dont la valeur n'a pas pu être lue
+    private static final Exception UNREADABLE = new IllegalStateException("Valeur illisible");
+
     private final WebSocketNotificationService webSocketNotificationService;
+    private final KafkaRetryRouter retryRouter;
 
-    @KafkaListener(topics = KafkaConfig.PDF_PROCESSING_TOPIC, groupId = "pdf-processing-group")
+    @KafkaListener(topics = KafkaConfig.PDF_PROCESSING_TOPIC, groupId = "pdf-processing-group",
+            concurrency = PDF_PROCESSING_CONCURRENCY, autoStartup = RECORD_MODE)
     public void handlePdfProcessingMessage(
             @Payload PdfProcessingMessage message,
-            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            ConsumerRecord<String, Object> record,
             Acknowledgment acknowledgment) {
 
         try {
             log.info("Processing PDF message: {} for user: {}", message.getTaskId(), message.getUserId());
 
-            // Traiter le message selon le statut
-            switch (message.getStatus()) {
-                case PENDING:
-                    log.info("PDF processing task {} is pending", message.getTaskId());
-                    break;
-
-                case PROCESSING:
-                    log.info("PDF processing task {} is in progress", message.getTaskId());
-                    webSocketNotificationService.sendPdfProcessingUpdate(
-                        message.getUserId(),
-                        message.getTaskId(),
-                        "PROCESSING",
-                        "PDF generation in progress..."
-                    );
-                    break;
-
-                case COMPLETED:
-                    log.info("PDF processing task {} completed successfully", message.getTaskId());
-                    // Envoyer notification de succès via WebSocket si pas déjà fait
-                    break;
-
-                case FAILED:
-                    log.error("PDF processing task {} failed: {}", message.getTaskId(), message.getErrorMessage());
-                    // Traitement des erreurs (retry, notification admin, etc.)
-                    break;
+            if (handlePdfStatus(message)) {
+                pushPdfProgress(message);
             }
-
-            // Confirmer le traitement
-            acknowledgment.acknowledge();
-
         } catch (Exception e) {
             log.error("Error processing PDF message: {}", message.getTaskId(), e);
-            // Ne pas acknowledger en cas d'erreur pour retry
+            // Retry différé sur un autre topic : la partition n'attend pas ce message
+            retryRouter.reject(record, e);
+        }
+
+        // Confirmer le traitement
+        acknowledgment.acknowledge();
+    }
+
+    /**
+     * Variante par lot : seule la dernière progression de chaque tâche du lot est poussée au client,
+     * et le lot est acquitté en une fois, après republication de ses records en échec
+     */
+    @KafkaListener(topics = KafkaConfig.PDF_PROCESSING_TOPIC, groupId = "pdf-processing-group",
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY, concurrency = PDF_PROCESSING_CONCURRENCY,
+            autoStartup = BATCH_MODE)
+    public void handlePdfProcessingBatch(List<ConsumerRecord<String, Object>> records, Acknowledgment acknowledgment) {
+        // userId + taskId -> record de la dernière progression
+        Map<String, ConsumerRecord<String, Object>> latestProgress = new LinkedHashMap<>();
+        Map<ConsumerRecord<String, Object>, Exception> failures = new IdentityHashMap<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            if (!(record.value() instanceof PdfProcessingMessage message)) {
+                failures.put(record, UNREADABLE);
+                continue;
+            }
+            String task = message.getUserId() + '/' + message.getTaskId();
+            try {
+                if (handlePdfStatus(message)) {
+                    latestProgress.put(task, record);
+                } else {
+                    // Terminée ou en échec : une progression antérieure du lot est périmée
+                    latestProgress.remove(task);
+                }
+            } catch (Exception e) {
+                log.error("Error processing PDF message: {}", message.getTaskId(), e);
+                failures.put(record, e);
+            }
+        }
+
+        for (ConsumerRecord<String, Object> record : latestProgress.values()) {
+            PdfProcessingMessage progress = (PdfProcessingMessage) record.value();
+            try {
+                pushPdfProgress(progress);
+            } catch (Exception e) {
+                log.error("Error pushing PDF progress: {}", progress.getTaskId(), e);
+                failures.put(record, e);
+            }
+        }
+        routeFailures(records, failures, acknowledgment);
+        log.debug("Processed {} PDF messages, {} progress updates pushed", records.size(), latestProgress.size());
+    }
+
+    /**
+     * @return true si le message est une progression à pousser au client
+     */
+    private boolean handlePdfStatus(PdfProcessingMessage message) {
+        // Traiter le message selon le statut
+        switch (message.getStatus()) {
+            case PENDING:
+                log.info("PDF processing task {} is pending", message.getTaskId());
+                return false;
+
+            case PROCESSING:
+                log.info("PDF processing task {} is in progress", message.getTaskId());
+                return true;
+
+            case COMPLETED:
+                log.info("PDF processing task {} completed successfully", message.getTaskId());
+                // Envoyer notification de succès via WebSocket si pas déjà fait
+                return false;
+
+            case FAILED:
+                log.error("PDF processing task {} failed: {}", message.getTaskId(), message.getErrorMessage());
+                // Traitement des erreurs (retry, notification admin, etc.)
+                return false;
         }
+        return false;
+    }
+
+    private void pushPdfProgress(PdfProcessingMessage message) {
+        webSocketNotificationService.sendPdfProcessingUpdate(
+            message.getUserId(),
+            message.getTaskId(),
+            "PROCESSING",
+            message.getProcessedRows() != null
+                ? String.format("PDF generation in progress: %d/%d todos, %d pages",
+                    message.getProcessedRows(), message.getTotalRows(), message.getPageCount())
+                : "PDF generation in progress..."
+        );
     }
 
-    @KafkaListener(topics = KafkaConfig.TODO_SYNC_TOPIC, groupId = "todo-sync-group")
+    @KafkaListener(topics = KafkaConfig.TODO_SYNC_TOPIC, groupId = "todo-sync-group",
+            concurrency = TODO_SYNC_CONCURRENCY, autoStartup = RECORD_MODE)
     public void handleTodoSyncMessage(
             @Payload TodoSyncMessage message,
-            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            ConsumerRecord<String, Object> record,
             Acknowledgment acknowledgment) {
 
         try {
             log.info("Processing todo sync message: {} for user: {}", message.getBatchId(), message.getUserId());
 
-            // Traiter le message selon l'action et le statut
-            switch (message.getStatus()) {
-                case STARTED:
-                    log.info("Todo sync batch {} started for user: {}", message.getBatchId(), message.getUserId());
-                    break;
-
-                case IN_PROGRESS:
-                    log.info("Todo sync batch {} in progress: {}/{}",
-                            message.getBatchId(), message.getProcessedTodos(), message.getTotalTodos());
-                    break;
-
-                case COMPLETED:
-                    log.info("Todo sync batch {} completed successfully for user: {}",
-                            message.getBatchId(), message.getUserId());
-                    // Peut déclencher des actions post-synchronisation
-                    break;
-
-                case FAILED:
-                    log.error("Todo sync batch {} failed for user: {}: {}",
-                            message.getBatchId(), message.getUserId(), message.getErrorMessage());
-                    // Traitement des erreurs de synchronisation
-                    break;
+            handleTodoSyncStatus(message);
+        } catch (Exception e) {
+            log.error("Error processing todo sync message: {}", message.getBatchId(), e);
+            retryRouter.reject(record, e);
+        }
+
+        acknowledgment.acknowledge();
+    }
+
+    /**
+     * Variante par lot : seule la dernière progression de chaque sync du lot est traitée
+     */
+    @KafkaListener(topics = KafkaConfig.TODO_SYNC_TOPIC, groupId = "todo-sync-group",
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY, concurrency = TODO_SYNC_CONCURRENCY,
+            autoStartup = BATCH_MODE)
+    public void handleTodoSyncBatch(List<ConsumerRecord<String, Object>> records, Acknowledgment acknowledgment) {
+        // batchId -> record de la dernière progression
+        Map<String, ConsumerRecord<String, Object>> latestProgress = new LinkedHashMap<>();
+        Map<ConsumerRecord<String, Object>, Exception> failures = new IdentityHashMap<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            if (!(record.value() instanceof TodoSyncMessage message)) {
+                failures.put(record, UNREADABLE);
+                continue;
+            }
+            if (message.getStatus() == TodoSyncMessage.SyncStatus.IN_PROGRESS) {
+                latestProgress.put(message.getBatchId(), record);
+                continue;
             }
+            latestProgress.remove(message.getBatchId());
+            handleTodoSyncRecord(record, failures);
+        }
 
-            acknowledgment.acknowledge();
+        latestProgress.values().forEach(record -> handleTodoSyncRecord(record, failures));
+        routeFailures(records, failures, acknowledgment);
+    }
 
+    private void handleTodoSyncRecord(ConsumerRecord<String, Object> record,
+                                      Map<ConsumerRecord<String, Object>, Exception> failures) {
+        TodoSyncMessage message = (TodoSyncMessage) record.value();
+        try {
+            handleTodoSyncStatus(message);
         } catch (Exception e) {
             log.error("Error processing todo sync message: {}", message.getBatchId(), e);
+            failures.put(record, e);
         }
     }
 
-    @KafkaListener(topics = KafkaConfig.NOTIFICATION_TOPIC, groupId = "notification-group")
+    private void handleTodoSyncStatus(TodoSyncMessage message) {
+        // Traiter le message selon l'action et le statut
+        switch (message.getStatus()) {
+            case STARTED:
+                log.info("Todo sync batch {} started for user: {}", message.getBatchId(), message.getUserId());
+                break;
+
+            case IN_PROGRESS:
+                log.info("Todo sync batch {} in progress: {}/{}",
+                        message.getBatchId(), message.getProcessedTodos(), message.getTotalTodos());
+                break;
+
+            case COMPLETED:
+                log.info("Todo sync batch {} completed successfully for user: {} (created: {}, updated: {}, unchanged: {}, deleted: {})",
+                        message.getBatchId(), message.getUserId(), message.getCreatedTodos(),
+                        message.getUpdatedTodos(), message.getUnchangedTodos(), message.getDeletedTodos());
+                // Peut déclencher des actions post-synchronisation
+                break;
+
+            case FAILED:
+                log.error("Todo sync batch {} failed for user: {}: {}",
+                        message.getBatchId(), message.getUserId(), message.getErrorMessage());
+                // Traitement des erreurs de synchronisation
+                break;
+        }
+    }
+
+    @KafkaListener(topics = KafkaConfig.NOTIFICATION_TOPIC, groupId = "notification-group",
+            concurrency = NOTIFICATION_CONCURRENCY, autoStartup = RECORD_MODE)
     public void handleNotificationMessage(
             @Payload NotificationMessage message,
-            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            ConsumerRecord<String, Object> record,
             Acknowledgment acknowledgment) {
 
         try {
             log.info("Processing notification message for user: {} - {}", message.getUserId(), message.getTitle());
 
-            // Envoyer la notification via WebSocket
-            webSocketNotificationService.sendNotificationToUser(message.getUserId(), message);
-
-            // Selon le type de notification, peut déclencher d'autres actions
-            switch (message.getType()) {
-                case PDF_PROCESSING_COMPLETED:
-                    log.info("PDF processing notification sent to user: {}", message.getUserId());
-                    break;
+            deliverNotification(message);
+        } catch (Exception e) {
+            log.error("Error processing notification message for user: {}", message.getUserId(), e);
+            retryRouter.reject(record, e);
+        }
 
-                case SYNC_COMPLETED:
-                    log.info("Sync completion notification sent to user: {}", message.getUserId());
-                    break;
+        acknowledgment.acknowledge();
+    }
 
-                case SYSTEM_NOTIFICATION:
-                    log.info("System notification sent to user: {}", message.getUserId());
-                    // Peut également envoyer à tous les utilisateurs connectés
-                    webSocketNotificationService.sendNotificationToTopic("system", message);
-                    break;
+    /**
+     * Variante par lot. Les notifications sont des événements distincts : elles sont toutes livrées,
+     * dans l'ordre, mais une notification identique répétée pour un même utilisateur n'est poussée qu'une fois
+     */
+    @KafkaListener(topics = KafkaConfig.NOTIFICATION_TOPIC, groupId = "notification-group",
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY, concurrency = NOTIFICATION_CONCURRENCY,
+            autoStartup = BATCH_MODE)
+    public void handleNotificationBatch(List<ConsumerRecord<String, Object>> records, Acknowledgment acknowledgment) {
+        Set<NotificationKey> delivered = new HashSet<>();
+        Map<ConsumerRecord<String, Object>, Exception> failures = new IdentityHashMap<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            if (!(record.value() instanceof NotificationMessage message)) {
+                failures.put(record, UNREADABLE);
+                continue;
+            }
+            if (!delivered.add(NotificationKey.of(message))) {
+                continue;
+            }
+            try {
+                deliverNotification(message);
+            } catch (Exception e) {
+                log.error("Error processing notification message for user: {}", message.getUserId(), e);
+                failures.put(record, e);
+            }
+        }
+        routeFailures(records, failures, acknowledgment);
+    }
 
-                default:
-                    log.info("General notification sent to user: {}", message.getUserId());
+    /**
+     * Republie les records en échec d'un lot dans l'ordre des offsets, chacun par son propre envoi,
+     * et n'acquitte le lot qu'une fois tous republiés. Si une republication échoue, seuls les records
+     * qui la précèdent sont acquittés : le lot est relivré à partir de ce record.
+     */
+    private void routeFailures(List<ConsumerRecord<String, Object>> records,
+                               Map<ConsumerRecord<String, Object>, Exception> failures,
+                               Acknowledgment acknowledgment) {
+        for (int index = 0; index < records.size() && !failures.isEmpty(); index++) {
+            ConsumerRecord<String, Object> record = records.get(index);
+            Exception cause = failures.remove(record);
+            if (cause == null) {
+                continue;
             }
+            try {
+                if (cause == UNREADABLE) {
+                    retryRouter.rejectUnreadable(record, null);
+                } else {
+                    retryRouter.reject(record, cause);
+                }
+            } catch (RuntimeException e) {
+                log.error("Record {}-{}@{} not republished, batch redelivered from this record",
+                        record.topic(), record.partition(), record.offset(), e);
+                acknowledgment.nack(index, REDELIVERY_DELAY);
+                return;
+            }
+        }
+        acknowledgment.acknowledge();
+    }
+
+    private void deliverNotification(NotificationMessage message) {
+        // Envoyer la notification via WebSocket
+        webSocketNotificationService.sendNotificationToUser(message.getUserId(), message);
+
+        // Selon le type de notification, peut déclencher d'autres actions
+        switch (message.getType()) {
+            case PDF_PROCESSING_COMPLETED:
+                log.info("PDF processing notification sent to user: {}", message.getUserId());
+                break;
+
+            case SYNC_COMPLETED:
+                log.info("Sync completion notification sent to user: {}", message.getUserId());
+                break;
+
+            case SYSTEM_NOTIFICATION:
+                log.info("System notification sent to user: {}", message.getUserId());
+                // Peut également envoyer à tous les utilisateurs connectés
+                webSocketNotificationService.sendNotificationToTopic("system", message);
+                break;
 
+            default:
+                log.info("General notification sent to user: {}", message.getUserId());
+        }
+    }
+
+    @KafkaListener(topics = RETRY_STAGE_0, groupId = "retry-0-group")
+    public void handleRetryStage0(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment) {
+        handleRetry(record, acknowledgment);
+    }
+
+    @KafkaListener(topics = RETRY_STAGE_1, groupId = "retry-1-group")
+    public void handleRetryStage1(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment) {
+        handleRetry(record, acknowledgment);
+    }
+
+    @KafkaListener(topics = RETRY_STAGE_2, groupId = "retry-2-group")
+    public void handleRetryStage2(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment) {
+        handleRetry(record, acknowledgment);
+    }
+
+    /**
+     * Retraite un record de retry une fois son délai écoulé. Avant l'échéance, nack remet le record
+     * et met le consommateur en pause sans bloquer son thread ; les topics applicatifs ne sont pas concernés.
+     * Un retry repasse par le traitement unitaire : pas de fusion des progressions.
+     */
+    private void handleRetry(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment) {
+        Duration remaining = retryRouter.remainingDelay(record);
+        if (!remaining.isZero()) {
+            acknowledgment.nack(remaining);
+            return;
+        }
+
+        Object value = record.value();
+        if (!(value instanceof PdfProcessingMessage || value instanceof TodoSyncMessage
+                || value instanceof NotificationMessage)) {
+            retryRouter.rejectUnreadable(record, null);
             acknowledgment.acknowledge();
+            return;
+        }
 
+        try {
+            if (value instanceof PdfProcessingMessage message) {
+                if (handlePdfStatus(message)) {
+                    pushPdfProgress(message);
+                }
+            } else if (value instanceof TodoSyncMessage message) {
+                handleTodoSyncStatus(message);
+            } else {
+                deliverNotification((NotificationMessage) value);
+            }
         } catch (Exception e) {
-            log.error("Error processing notification message for user: {}", message.getUserId(), e);
+            log.error("Retry failed for record {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+            retryRouter.reject(record, e);
+        }
+        acknowledgment.acknowledge();
+    }
+
+    // Contenu d'une notification, hors horodatage : deux envois du même événement dans un lot
+    private record NotificationKey(String userId, NotificationMessage.NotificationType type,
+                                   String title, String message, Object data) {
+
+        static NotificationKey of(NotificationMessage notification) {
+            return new NotificationKey(notification.getUserId(), notification.getType(),
+                    notification.getTitle(), notification.getMessage(), notification.getData());
         }
     }
 }
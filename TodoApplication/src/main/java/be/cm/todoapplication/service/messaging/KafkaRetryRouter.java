@@ -0,0 +1,214 @@
+package be.cm.todoapplication.service.messaging;
+
+import be.cm.todoapplication.config.KafkaConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * Retry non bloquant des listeners Kafka. Un record en échec est republié sur l'étape de retry suivante
+ * de son topic, puis sur le topic de dead letter après {@link KafkaConfig#RETRY_ATTEMPTS} tentatives :
+ * le listener l'acquitte et la partition continue. Chaque étape a un délai fixe
+ * (initial-delay × multiplier^étape), compté depuis la republication du record.
+ * Un record illisible part directement sur le dead letter topic, avec ses octets d'origine.
+ */
+@Component
+@Slf4j
+public class KafkaRetryRouter {
+
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(KafkaRetryRouter.class);
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final KafkaTemplate<String, byte[]> deadLetterTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long[] delaysMillis = new long[KafkaConfig.RETRY_ATTEMPTS];
+    private final LongSupplier clock;
+
+    @Autowired
+    public KafkaRetryRouter(KafkaTemplate<String, Object> kafkaTemplate,
+                            @Qualifier(KafkaConfig.DEAD_LETTER_TEMPLATE) KafkaTemplate<String, byte[]> deadLetterTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.kafka.retry.initial-delay:1s}") Duration initialDelay,
+                            @Value("${app.kafka.retry.multiplier:5}") double multiplier) {
+        this(kafkaTemplate, deadLetterTemplate, meterRegistry, initialDelay, multiplier, System::currentTimeMillis);
+    }
+
+    KafkaRetryRouter(KafkaTemplate<String, Object> kafkaTemplate, KafkaTemplate<String, byte[]> deadLetterTemplate,
+                     MeterRegistry meterRegistry, Duration initialDelay, double multiplier, LongSupplier clock) {
+        if (initialDelay.isNegative() || multiplier < 1) {
+            throw new IllegalArgumentException("app.kafka.retry invalide: initial-delay=" + initialDelay
+                    + ", multiplier=" + multiplier);
+        }
+        this.kafkaTemplate = kafkaTemplate;
+        this.deadLetterTemplate = deadLetterTemplate;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        for (int stage = 0; stage < delaysMillis.length; stage++) {
+            delaysMillis[stage] = (long) (initialDelay.toMillis() * Math.pow(multiplier, stage));
+        }
+    }
+
+    /**
+     * Republie un record en échec sur l'étape suivante, ou sur le dead letter topic s'il a épuisé ses retries.
+     * L'envoi est attendu : le record ne doit être acquitté qu'une fois republié.
+     *
+     * @throws KafkaException si la republication échoue ; le record ne doit alors pas être acquitté
+     */
+    public void reject(ConsumerRecord<String, ?> record, Exception cause) {
+        String topic = KafkaConfig.mainTopic(record.topic());
+        int nextStage = KafkaConfig.retryStage(record.topic()) + 1;
+        boolean deadLetter = nextStage >= KafkaConfig.RETRY_ATTEMPTS;
+        String destination = deadLetter ? KafkaConfig.deadLetterTopic(topic) : KafkaConfig.retryTopic(topic, nextStage);
+
+        send(kafkaTemplate, new ProducerRecord<>(destination, null, clock.getAsLong(),
+                record.key(), record.value(), failureHeaders(record, cause)));
+
+        if (deadLetter) {
+            log.error("Record {}-{}@{} sent to {} after {} retries", record.topic(), record.partition(),
+                    record.offset(), destination, KafkaConfig.RETRY_ATTEMPTS, cause);
+            countDeadLetter(topic);
+        } else {
+            log.warn("Record {}-{}@{} scheduled for retry {} on {} in {} ms: {}", record.topic(), record.partition(),
+                    record.offset(), nextStage + 1, destination, delaysMillis[nextStage], cause.toString());
+            Counter.builder("kafka.listener.retries")
+                    .description("Records republiés sur une étape de retry")
+                    .tag("topic", topic)
+                    .tag("attempt", String.valueOf(nextStage + 1))
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    /**
+     * Envoie directement sur le dead letter topic un record que le listener ne peut pas traiter : le retenter
+     * ne changerait rien. Une valeur non désérialisable est republiée avec ses octets d'origine, lus dans
+     * l'en-tête d'exception de l'ErrorHandlingDeserializer.
+     *
+     * @param cause l'erreur remontée par le conteneur, null si le listener a reçu le record sans valeur lisible
+     * @throws KafkaException si la republication échoue ; le record ne doit alors pas être acquitté
+     */
+    public void rejectUnreadable(ConsumerRecord<?, ?> record, Exception cause) {
+        String topic = KafkaConfig.mainTopic(record.topic());
+        String destination = KafkaConfig.deadLetterTopic(topic);
+        String key = Objects.toString(record.key(), null);
+
+        DeserializationException unreadable = deserializationFailure(record, cause);
+        if (unreadable != null) {
+            cause = unreadable;
+            send(deadLetterTemplate, new ProducerRecord<>(destination, null, clock.getAsLong(),
+                    key, unreadable.getData(), failureHeaders(record, unreadable)));
+        } else {
+            if (cause == null) {
+                cause = new IllegalStateException("Valeur inattendue: "
+                        + (record.value() == null ? null : record.value().getClass().getName()));
+            }
+            send(kafkaTemplate, new ProducerRecord<>(destination, null, clock.getAsLong(),
+                    key, record.value(), failureHeaders(record, cause)));
+        }
+
+        log.error("Unreadable record {}-{}@{} sent to {}", record.topic(), record.partition(), record.offset(),
+                destination, cause);
+        countDeadLetter(topic);
+    }
+
+    /**
+     * @return le temps restant avant qu'un record d'un topic de retry puisse être retraité
+     */
+    public Duration remainingDelay(ConsumerRecord<String, ?> record) {
+        int stage = KafkaConfig.retryStage(record.topic());
+        if (stage < 0 || record.timestamp() < 0) {
+            return Duration.ZERO;
+        }
+        long remaining = record.timestamp() + delaysMillis[stage] - clock.getAsLong();
+        return Duration.ofMillis(Math.max(0, remaining));
+    }
+
+    // Attend l'envoi : le record d'origine ne doit être acquitté qu'une fois republié
+    private static <V> void send(KafkaTemplate<String, V> template, ProducerRecord<String, V> record) {
+        try {
+            template.send(record).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Republication interrompue vers " + record.topic(), e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new KafkaException("Republication impossible vers " + record.topic(), e);
+        }
+    }
+
+    private void countDeadLetter(String topic) {
+        Counter.builder("kafka.listener.dead.letters")
+                .description("Records envoyés sur un dead letter topic après épuisement des retries ou illisibles")
+                .tag("topic", topic)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // En-tête posé par l'ErrorHandlingDeserializer, sinon l'exception remontée par le conteneur
+    private static DeserializationException deserializationFailure(ConsumerRecord<?, ?> record, Exception cause) {
+        DeserializationException fromHeader = SerializationUtils.getExceptionFromHeader(record,
+                SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+        if (fromHeader != null) {
+            return fromHeader;
+        }
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof DeserializationException deserialization) {
+                return deserialization;
+            }
+        }
+        return null;
+    }
+
+    // Origine du premier échec conservée d'une étape à l'autre, dernière exception à jour
+    private static Headers failureHeaders(ConsumerRecord<?, ?> record, Exception cause) {
+        Headers headers = new RecordHeaders();
+        Header originalTopic = record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        if (originalTopic != null) {
+            headers.add(originalTopic);
+            copy(record.headers(), headers, KafkaHeaders.DLT_ORIGINAL_PARTITION);
+            copy(record.headers(), headers, KafkaHeaders.DLT_ORIGINAL_OFFSET);
+        } else {
+            headers.add(KafkaHeaders.DLT_ORIGINAL_TOPIC, utf8(record.topic()));
+            headers.add(KafkaHeaders.DLT_ORIGINAL_PARTITION, ByteBuffer.allocate(Integer.BYTES).putInt(record.partition()).array());
+            headers.add(KafkaHeaders.DLT_ORIGINAL_OFFSET, ByteBuffer.allocate(Long.BYTES).putLong(record.offset()).array());
+        }
+        headers.add(KafkaHeaders.DLT_EXCEPTION_FQCN, utf8(cause.getClass().getName()));
+        headers.add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, utf8(String.valueOf(cause.getMessage())));
+        return headers;
+    }
+
+    private static void copy(Headers from, Headers to, String name) {
+        Header header = from.lastHeader(name);
+        if (header != null) {
+            to.add(header);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,124 @@
+package be.cm.todoapplication.service.pdf;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+
+/**
+ * Registre des polices, couleurs et en-têtes de tableau partagés par tous les générateurs PDF.
+ * Les instances sont construites une seule fois et ne peuvent pas être modifiées : elles peuvent
+ * être utilisées simultanément par plusieurs threads.
+ * Le registre sert la cohérence des documents (un style défini une fois pour tous les générateurs),
+ * pas l'allocation : PdfServiceBenchmark ne mesure pas d'écart, PdfWriter et Document dominent.
+ */
+public final class PdfStyles {
+
+    // Couleurs
+    public static final BaseColor HEADER_BACKGROUND = BaseColor.GRAY;
+    public static final BaseColor LIGHT_HEADER_BACKGROUND = BaseColor.LIGHT_GRAY;
+    public static final BaseColor ROW_BACKGROUND = BaseColor.WHITE;
+
+    // Polices
+    public static final Font TITLE_LARGE = new ImmutableFont(Font.FontFamily.HELVETICA, 20, Font.BOLD, null);
+    public static final Font TITLE = new ImmutableFont(Font.FontFamily.HELVETICA, 18, Font.BOLD, null);
+    public static final Font HEADING = new ImmutableFont(Font.FontFamily.HELVETICA, 14, Font.BOLD, null);
+    public static final Font LABEL = new ImmutableFont(Font.FontFamily.HELVETICA, 12, Font.BOLD, null);
+    public static final Font BODY = new ImmutableFont(Font.FontFamily.HELVETICA, 12, Font.NORMAL, null);
+    public static final Font BODY_SMALL = new ImmutableFont(Font.FontFamily.HELVETICA, 10, Font.NORMAL, null);
+    public static final Font SIGNATURE = new ImmutableFont(Font.FontFamily.HELVETICA, 14, Font.ITALIC, BaseColor.BLUE);
+    public static final Font WATERMARK = new ImmutableFont(Font.FontFamily.HELVETICA, 8, Font.NORMAL, BaseColor.GRAY);
+
+    // Marges intérieures des cellules
+    public static final float TODO_CELL_PADDING = 8;
+    public static final float USER_HEADER_PADDING = 5;
+
+    // En-têtes de tableau pré-construits (PdfPTable.addCell copie la cellule, les modèles restent intacts)
+    private static final PdfPCell[] TODO_TABLE_HEADER = headerRow(HEADING, HEADER_BACKGROUND, TODO_CELL_PADDING,
+            Element.ALIGN_UNDEFINED, "ID", "Titre", "Statut", "Utilisateur");
+    private static final PdfPCell[] USER_TABLE_HEADER = headerRow(LABEL, LIGHT_HEADER_BACKGROUND, USER_HEADER_PADDING,
+            Element.ALIGN_CENTER, "ID", "Nom", "Username", "Email", "Téléphone");
+
+    private PdfStyles() {
+    }
+
+    /**
+     * Ajoute la ligne d'en-tête du tableau des tâches (ID, Titre, Statut, Utilisateur)
+     */
+    public static void addTodoTableHeader(PdfPTable table) {
+        addRow(table, TODO_TABLE_HEADER);
+    }
+
+    /**
+     * Ajoute la ligne d'en-tête du tableau des utilisateurs
+     */
+    public static void addUserTableHeader(PdfPTable table) {
+        addRow(table, USER_TABLE_HEADER);
+    }
+
+    private static void addRow(PdfPTable table, PdfPCell[] row) {
+        for (PdfPCell cell : row) {
+            table.addCell(cell);
+        }
+    }
+
+    private static PdfPCell[] headerRow(Font font, BaseColor background, float padding, int alignment, String... labels) {
+        PdfPCell[] cells = new PdfPCell[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            PdfPCell cell = new PdfPCell(new Phrase(labels[i], font));
+            cell.setBackgroundColor(background);
+            cell.setPadding(padding);
+            if (alignment != Element.ALIGN_UNDEFINED) {
+                cell.setHorizontalAlignment(alignment);
+            }
+            cells[i] = cell;
+        }
+        return cells;
+    }
+
+    /**
+     * Police dont les attributs sont figés à la construction
+     */
+    static final class ImmutableFont extends Font {
+
+        ImmutableFont(FontFamily family, float size, int style, BaseColor color) {
+            super(family, size, style, color);
+        }
+
+        @Override
+        public void setFamily(String family) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setSize(float size) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setStyle(int style) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setStyle(String style) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setColor(BaseColor color) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setColor(int red, int green, int blue) {
+            throw unsupported();
+        }
+
+        private static UnsupportedOperationException unsupported() {
+            return new UnsupportedOperationException("Les polices du registre PdfStyles sont immuables");
+        }
+    }
+}
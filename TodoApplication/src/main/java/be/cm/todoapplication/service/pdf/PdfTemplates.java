@@ -0,0 +1,102 @@
+package be.cm.todoapplication.service.pdf;
+
+import be.cm.todoapplication.dto.TodoDTO;
+import be.cm.todoapplication.model.Todo;
+import com.itextpdf.text.*;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Gabarits communs aux générateurs PDF : ouverture du document, titres,
+ * blocs de détail d'une tâche et tableaux pré-configurés
+ */
+public final class PdfTemplates {
+
+    public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private PdfTemplates() {
+    }
+
+    /**
+     * Crée un document A4 et l'ouvre sur {@code out}
+     */
+    public static PdfWriter open(Document document, OutputStream out) throws DocumentException {
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        document.open();
+        return writer;
+    }
+
+    /**
+     * Ajoute un titre centré
+     */
+    public static void addTitle(Document document, String text, Font font, float spacingAfter) throws DocumentException {
+        Paragraph title = new Paragraph(text, font);
+        title.setAlignment(Element.ALIGN_CENTER);
+        title.setSpacingAfter(spacingAfter);
+        document.add(title);
+    }
+
+    /**
+     * Bloc "ID / Titre / Statut / Utilisateur / Description" des PDFs générés depuis un TodoDTO
+     */
+    public static void addTodoDetails(Document document, TodoDTO todo) throws DocumentException {
+        document.add(new Paragraph("ID: " + todo.getId(), PdfStyles.HEADING));
+        document.add(new Paragraph("Titre: " + todo.getTitle(), PdfStyles.HEADING));
+        document.add(new Paragraph("Statut: " + (todo.getCompleted() ? "Terminée" : "En cours"), PdfStyles.BODY));
+        document.add(new Paragraph("Utilisateur: " + todo.getUsername(), PdfStyles.BODY));
+
+        if (todo.getDescription() != null && !todo.getDescription().isEmpty()) {
+            addBlankLine(document, PdfStyles.BODY);
+            document.add(new Paragraph("Description:", PdfStyles.HEADING));
+            document.add(new Paragraph(todo.getDescription(), PdfStyles.BODY));
+        }
+    }
+
+    /**
+     * Bloc de détail des PDFs générés depuis l'entité Todo
+     */
+    public static void addTodoDetails(Document document, Todo todo) throws DocumentException {
+        document.add(new Paragraph("ID: " + todo.getId(), PdfStyles.BODY));
+        document.add(new Paragraph(" "));
+        document.add(new Paragraph("Utilisateur: " + todo.getUsername(), PdfStyles.BODY));
+        document.add(new Paragraph(" "));
+        document.add(new Paragraph("Titre: " + todo.getTitle(), PdfStyles.BODY));
+        document.add(new Paragraph(" "));
+        document.add(new Paragraph("Statut: " + (todo.getCompleted() ? "Complétée" : "En cours"), PdfStyles.BODY));
+        document.add(new Paragraph(" "));
+        document.add(new Paragraph(" "));
+    }
+
+    public static void addBlankLine(Document document, Font font) throws DocumentException {
+        document.add(new Paragraph(" ", font));
+    }
+
+    /**
+     * Tableau des tâches (ID, Titre, Statut, Utilisateur) avec son en-tête.
+     * La cellule par défaut porte le style des lignes de données.
+     */
+    public static PdfPTable newTodoTable() throws DocumentException {
+        PdfPTable table = new PdfPTable(4);
+        table.setWidthPercentage(100);
+        table.setWidths(new float[]{1, 3, 2, 2});
+        table.getDefaultCell().setBackgroundColor(PdfStyles.ROW_BACKGROUND);
+        table.getDefaultCell().setPadding(PdfStyles.TODO_CELL_PADDING);
+        PdfStyles.addTodoTableHeader(table);
+        return table;
+    }
+
+    /**
+     * Tableau des utilisateurs avec son en-tête
+     */
+    public static PdfPTable newUserTable() {
+        PdfPTable table = new PdfPTable(5);
+        table.setWidthPercentage(100);
+        table.setSpacingBefore(10f);
+        table.setSpacingAfter(10f);
+        PdfStyles.addUserTableHeader(table);
+        return table;
+    }
+}
@@ -0,0 +1,217 @@
+package be.cm.todoapplication.service.pdf;
+
+import com.itextpdf.text.DocumentException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Cache des PDFs générés pour un todo, indexé par (todoId, version, gabarit).
+ * La version JPA change à chaque modification du todo : une entrée n'est jamais invalidée
+ * explicitement, les anciennes versions ne sont plus demandées et sortent par LRU.
+ * Niveau chaud en mémoire (borné en octets), débordement sur disque sous pdf-storage/cache/.
+ */
+@Component
+@Slf4j
+public class TodoPdfCache {
+
+    public static final String TEMPLATE_DETAIL = "detail";
+
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+    private final Path cacheDirectory;
+
+    // LinkedHashMap en ordre d'accès = LRU ; protégé par le verrou de l'instance
+    private final LinkedHashMap<Key, byte[]> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes = -1;
+
+    // Générations en cours, pour ne pas rendre deux fois le même PDF sur des requêtes simultanées
+    private final Map<Key, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    public TodoPdfCache(@Value("${pdf.cache.memory-max-bytes:33554432}") long maxMemoryBytes,
+                        @Value("${pdf.cache.disk-max-bytes:268435456}") long maxDiskBytes,
+                        @Value("${pdf.storage.path:./pdf-storage/}") String storagePath) {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxDiskBytes = maxDiskBytes;
+        this.cacheDirectory = Paths.get(storagePath, "cache");
+    }
+
+    /**
+     * Retourne le PDF en cache pour {@code key}, ou le génère avec {@code generator} et le met en cache
+     */
+    public byte[] get(Key key, PdfGenerator generator) throws DocumentException {
+        byte[] cached = getFromMemory(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<byte[]> created = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            byte[] pdf = readFromDisk(key);
+            if (pdf == null) {
+                pdf = generator.generate();
+                log.debug("PDF généré et mis en cache: {}", key);
+            }
+            putInMemory(key, pdf);
+            created.complete(pdf);
+            return pdf;
+        } catch (DocumentException | RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+
+    private synchronized byte[] getFromMemory(Key key) {
+        return memory.get(key);
+    }
+
+    /**
+     * Une même clé peut être remise en mémoire par deux requêtes qui l'ont manquée de peu :
+     * la taille de l'entrée remplacée est alors retirée du total
+     */
+    void putInMemory(Key key, byte[] pdf) {
+        List<Map.Entry<Key, byte[]>> evicted = new ArrayList<>();
+        synchronized (this) {
+            byte[] replaced = memory.put(key, pdf);
+            memoryBytes += pdf.length - (replaced == null ? 0 : replaced.length);
+            Iterator<Map.Entry<Key, byte[]>> eldest = memory.entrySet().iterator();
+            while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+                Map.Entry<Key, byte[]> entry = eldest.next();
+                eldest.remove();
+                memoryBytes -= entry.getValue().length;
+                evicted.add(entry);
+            }
+        }
+        // Écriture disque hors verrou
+        for (Map.Entry<Key, byte[]> entry : evicted) {
+            spillToDisk(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private byte[] readFromDisk(Key key) {
+        Path file = cacheDirectory.resolve(key.fileName());
+        try {
+            return Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Lecture du PDF en cache impossible {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void spillToDisk(Key key, byte[] pdf) {
+        if (maxDiskBytes <= 0 || pdf.length > maxDiskBytes) {
+            return;
+        }
+        Path file = cacheDirectory.resolve(key.fileName());
+        try {
+            Files.createDirectories(cacheDirectory);
+            if (Files.exists(file)) {
+                return;
+            }
+            Path part = cacheDirectory.resolve(key.fileName() + ".part");
+            Files.write(part, pdf);
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            trimDisk(pdf.length);
+        } catch (IOException e) {
+            log.warn("Écriture du PDF en cache impossible {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Supprime les fichiers les plus anciens quand le cache disque dépasse sa taille maximale
+     */
+    private synchronized void trimDisk(long addedBytes) throws IOException {
+        if (diskBytes < 0) {
+            diskBytes = listDiskEntries().stream().mapToLong(DiskEntry::size).sum();
+        } else {
+            diskBytes += addedBytes;
+        }
+        if (diskBytes <= maxDiskBytes) {
+            return;
+        }
+
+        List<DiskEntry> entries = listDiskEntries();
+        entries.sort(Comparator.comparing(DiskEntry::lastModified));
+        long target = maxDiskBytes * 9 / 10;
+        diskBytes = entries.stream().mapToLong(DiskEntry::size).sum();
+        for (DiskEntry entry : entries) {
+            if (diskBytes <= target) {
+                break;
+            }
+            if (Files.deleteIfExists(entry.path())) {
+                diskBytes -= entry.size();
+            }
+        }
+    }
+
+    private List<DiskEntry> listDiskEntries() throws IOException {
+        List<DiskEntry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(".pdf")) {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    entries.add(new DiskEntry(file, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> future) throws DocumentException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Génération PDF interrompue", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DocumentException documentException) {
+                throw documentException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Clé de cache ; l'ETag HTTP en est dérivé, un 304 peut donc être servi sans lire le PDF
+     */
+    public record Key(long todoId, long version, String template) {
+
+        public String etag() {
+            return "\"todo-" + todoId + "-v" + version + "-" + template + "\"";
+        }
+
+        String fileName() {
+            return "todo-" + todoId + "-v" + version + "-" + template + ".pdf";
+        }
+    }
+
+    @FunctionalInterface
+    public interface PdfGenerator {
+        byte[] generate() throws DocumentException;
+    }
+
+    private record DiskEntry(Path path, long size, long lastModified) {
+    }
+}
@@ -0,0 +1,116 @@
+package be.cm.todoapplication.service.sync;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.IntSupplier;
+
+/**
+ * Taille des tranches du sync ajustée en AIMD : augmentation additive tant que la durée d'une tranche
+ * (upsert + commit) reste sous la cible et qu'aucun thread n'attend de connexion dans le pool,
+ * division par deux dès que l'une des deux dérive. Partagé par tous les workers de sync.
+ */
+@Component
+@Slf4j
+public class AdaptiveSyncThrottle {
+
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final int increaseStep;
+    private final long targetLatencyNanos;
+    private final IntSupplier threadsAwaitingConnection;
+
+    private int chunkSize;
+    private double rowsPerSecond;
+
+    @Autowired
+    public AdaptiveSyncThrottle(DataSource dataSource,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.sync.throttle.initial-chunk-size:500}") int initialChunkSize,
+                                @Value("${app.sync.throttle.min-chunk-size:50}") int minChunkSize,
+                                @Value("${app.sync.throttle.max-chunk-size:5000}") int maxChunkSize,
+                                @Value("${app.sync.throttle.target-chunk-latency:250ms}") Duration targetLatency) {
+        this(initialChunkSize, minChunkSize, maxChunkSize, targetLatency, poolWaiters(dataSource));
+
+        Gauge.builder("todo.sync.chunk.size", this, AdaptiveSyncThrottle::currentChunkSize)
+                .description("Taille de tranche choisie par le throttle adaptatif du sync")
+                .register(meterRegistry);
+        Gauge.builder("todo.sync.rate", this, AdaptiveSyncThrottle::currentRowsPerSecond)
+                .description("Débit observé de la dernière tranche synchronisée")
+                .baseUnit("rows.per.second")
+                .register(meterRegistry);
+    }
+
+    AdaptiveSyncThrottle(int initialChunkSize, int minChunkSize, int maxChunkSize,
+                         Duration targetLatency, IntSupplier threadsAwaitingConnection) {
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.increaseStep = Math.max(1, minChunkSize);
+        this.targetLatencyNanos = targetLatency.toNanos();
+        this.threadsAwaitingConnection = threadsAwaitingConnection;
+        this.chunkSize = Math.max(minChunkSize, Math.min(initialChunkSize, maxChunkSize));
+    }
+
+    /**
+     * Taille de la prochaine tranche à synchroniser
+     */
+    public synchronized int nextChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Ajuste la taille des tranches d'après la tranche qui vient d'être validée
+     *
+     * @param rows          lignes écrites
+     * @param elapsedNanos  durée de la transaction, commit compris
+     */
+    public synchronized void onChunkCommitted(int rows, long elapsedNanos) {
+        if (elapsedNanos > 0) {
+            rowsPerSecond = rows * 1_000_000_000d / elapsedNanos;
+        }
+
+        int waiting = threadsAwaitingConnection.getAsInt();
+        int previous = chunkSize;
+        if (elapsedNanos > targetLatencyNanos || waiting > 0) {
+            chunkSize = Math.max(minChunkSize, chunkSize / 2);
+        } else if (rows >= chunkSize) {
+            // On n'augmente que si la tranche était pleine : une fin de liste ne prouve rien
+            chunkSize = Math.min(maxChunkSize, chunkSize + increaseStep);
+        }
+
+        if (chunkSize != previous) {
+            log.debug("Taille de tranche du sync: {} -> {} ({} ms, {} en attente de connexion)",
+                    previous, chunkSize, elapsedNanos / 1_000_000, waiting);
+        }
+    }
+
+    synchronized int currentChunkSize() {
+        return chunkSize;
+    }
+
+    synchronized double currentRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    private static IntSupplier poolWaiters(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+                return () -> hikari.getHikariPoolMXBean() != null
+                        ? hikari.getHikariPoolMXBean().getThreadsAwaitingConnection()
+                        : 0;
+            }
+        } catch (SQLException e) {
+            log.warn("Pool de connexions non inspectable, seule la latence pilote le sync: {}", e.getMessage());
+        }
+        return () -> 0;
+    }
+}
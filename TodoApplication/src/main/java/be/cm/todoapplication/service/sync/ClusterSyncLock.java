@@ -0,0 +1,90 @@
+package be.cm.todoapplication.service.sync;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Verrou de synchronisation entre nœuds : advisory lock PostgreSQL de session.
+ * Le verrou vit avec la connexion qui l'a pris ; elle est donc retirée du pool pendant tout le sync
+ * et le verrou tombe de lui-même si le nœud meurt.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterSyncLock {
+
+    // Clé stable propre au sync des todos ("TodoSync" en ASCII)
+    static final long LOCK_KEY = 0x546F646F53796E63L;
+
+    private final DataSource dataSource;
+
+    /**
+     * @return le verrou, à fermer en fin de sync, ou {@code null} s'il est tenu par un autre nœud
+     */
+    public Lease tryAcquire() {
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            if (query(connection, "SELECT pg_try_advisory_lock(?)")) {
+                return new Lease(connection);
+            }
+            connection.close();
+            return null;
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw new IllegalStateException("Verrou de synchronisation indisponible", e);
+        }
+    }
+
+    private static boolean query(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setLong(1, LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.warn("Fermeture de la connexion du verrou de synchronisation impossible: {}", e.getMessage());
+            }
+        }
+    }
+
+    public static final class Lease implements AutoCloseable {
+
+        private final Connection connection;
+
+        private Lease(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void close() {
+            try {
+                query(connection, "SELECT pg_advisory_unlock(?)");
+            } catch (SQLException e) {
+                // Verrou peut-être encore tenu : la connexion ne doit pas retourner au pool
+                log.warn("Libération du verrou de synchronisation impossible: {}", e.getMessage());
+                try {
+                    connection.abort(Runnable::run);
+                } catch (SQLException abortFailure) {
+                    log.warn("Abandon de la connexion du verrou impossible: {}", abortFailure.getMessage());
+                }
+            } finally {
+                closeQuietly(connection);
+            }
+        }
+    }
+}
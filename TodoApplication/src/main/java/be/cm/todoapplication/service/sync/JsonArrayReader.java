@@ -0,0 +1,45 @@
+package be.cm.todoapplication.service.sync;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Lecture incrémentale d'un tableau JSON : un élément est désérialisé à la fois depuis le flux,
+ * le tableau complet n'est jamais en mémoire
+ */
+public class JsonArrayReader<T> implements Closeable {
+
+    private final JsonParser parser;
+    private final ObjectReader reader;
+
+    public JsonArrayReader(ObjectMapper mapper, InputStream in, Class<T> type) throws IOException {
+        this.parser = mapper.getFactory().createParser(in);
+        this.reader = mapper.readerFor(type);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Tableau JSON attendu");
+        }
+    }
+
+    /**
+     * @return l'élément suivant, ou {@code null} à la fin du tableau
+     */
+    public T next() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        return reader.readValue(parser);
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
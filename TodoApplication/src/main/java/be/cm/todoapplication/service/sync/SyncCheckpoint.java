@@ -0,0 +1,120 @@
+package be.cm.todoapplication.service.sync;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Point de contrôle d'un sync en flux. Chaque todo lu a une position dans le flux ; les voies
+ * commitent leurs tranches dans le désordre, le point de contrôle est la plus longue suite de
+ * positions commitées depuis le début. Après une tranche en échec il ne progresse plus :
+ * la reprise refera cette tranche et les suivantes (l'upsert est idempotent).
+ */
+public class SyncCheckpoint {
+
+    private long position;
+    private Long lastExternalId;
+    private boolean frozen;
+    // Positions commitées au-delà du point de contrôle -> external_id (peut être null)
+    private final TreeMap<Long, Long> committedAhead = new TreeMap<>();
+    private final Listener listener;
+
+    /**
+     * @param position       positions déjà commitées par une exécution précédente
+     * @param lastExternalId external_id du todo à la position {@code position - 1}
+     * @param listener       appelé, hors verrou, à chaque avancée du point de contrôle
+     */
+    public SyncCheckpoint(long position, Long lastExternalId, Listener listener) {
+        this.position = position;
+        this.lastExternalId = lastExternalId;
+        this.listener = listener;
+    }
+
+    /**
+     * Point de contrôle qui ne persiste rien, pour les syncs hors job
+     */
+    public static SyncCheckpoint none() {
+        return new SyncCheckpoint(0, null, (position, lastExternalId) -> { });
+    }
+
+    /**
+     * Nombre de todos du début du flux déjà commités : à sauter lors d'une reprise
+     */
+    public synchronized long position() {
+        return position;
+    }
+
+    /**
+     * external_id du dernier todo commité : permet de vérifier que la source n'a pas bougé avant de sauter
+     */
+    public synchronized Long lastExternalId() {
+        return lastExternalId;
+    }
+
+    /**
+     * La source ne correspond plus au point de contrôle : le sync repart du début du flux.
+     * Le point persisté n'est pas reculé ; il reprend sa progression une fois dépassé.
+     */
+    public synchronized void restart() {
+        position = 0;
+        lastExternalId = null;
+        committedAhead.clear();
+    }
+
+    /**
+     * Marque des positions comme commitées
+     *
+     * @param externalIds external_id de chaque position, dans le même ordre
+     */
+    public void committed(List<Long> positions, List<Long> externalIds) {
+        long advancedTo;
+        Long advancedId;
+        synchronized (this) {
+            if (frozen) {
+                return;
+            }
+            for (int i = 0; i < positions.size(); i++) {
+                if (positions.get(i) >= position) {
+                    committedAhead.put(positions.get(i), externalIds.get(i));
+                }
+            }
+            long start = position;
+            for (Map.Entry<Long, Long> next = committedAhead.firstEntry();
+                 next != null && next.getKey() == position;
+                 next = committedAhead.firstEntry()) {
+                committedAhead.pollFirstEntry();
+                position++;
+                lastExternalId = next.getValue();
+            }
+            if (position == start) {
+                return;
+            }
+            advancedTo = position;
+            advancedId = lastExternalId;
+        }
+        listener.onAdvance(advancedTo, advancedId);
+    }
+
+    /**
+     * Une tranche a échoué : le point de contrôle reste où il est pour le reste du sync
+     */
+    public synchronized void failed() {
+        frozen = true;
+        committedAhead.clear();
+    }
+
+    @FunctionalInterface
+    public interface Listener {
+        void onAdvance(long position, Long lastExternalId);
+    }
+
+    /**
+     * Le todo lu à la position du point de contrôle n'est pas celui qui y avait été commité
+     */
+    public static class MismatchException extends IllegalStateException {
+
+        public MismatchException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package be.cm.todoapplication.service.sync;
+
+import be.cm.todoapplication.service.TodoSyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Au démarrage, reprend le job de synchronisation laissé en cours par l'instance précédente
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SyncJobResumer {
+
+    private final SyncSingleFlight syncSingleFlight;
+    private final TodoSyncService todoSyncService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedSync() {
+        syncSingleFlight.run(todoSyncService::resumeInterruptedSyncAsync)
+                .exceptionally(e -> {
+                    log.error("Reprise du job de synchronisation impossible: {}", e.getMessage());
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,92 @@
+package be.cm.todoapplication.service.sync;
+
+import be.cm.todoapplication.model.SyncJob;
+import be.cm.todoapplication.repository.SyncJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Cycle de vie des jobs de synchronisation persistés (table sync_jobs)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncJobService {
+
+    private final SyncJobRepository syncJobRepository;
+
+    public SyncJob start(SyncJob.Kind kind, String requestedBy) {
+        return syncJobRepository.save(SyncJob.builder()
+                .id(UUID.randomUUID().toString())
+                .kind(kind)
+                .requestedBy(requestedBy)
+                .status(SyncJob.Status.RUNNING)
+                .build());
+    }
+
+    /**
+     * Point de contrôle du job, repris là où il s'est arrêté et enregistré à chaque avancée
+     */
+    public SyncCheckpoint checkpoint(SyncJob job) {
+        return new SyncCheckpoint(job.getCheckpointPosition(), job.getLastExternalId(), (position, lastExternalId) ->
+                syncJobRepository.advanceCheckpoint(job.getId(), position, lastExternalId, LocalDateTime.now()));
+    }
+
+    public void complete(SyncJob job, SyncResult result) {
+        finish(job.getId(), SyncJob.Status.COMPLETED, completed -> {
+            completed.setCreatedCount(result.created());
+            completed.setUpdatedCount(result.updated());
+            completed.setUnchangedCount(result.unchanged());
+            completed.setDeletedCount(result.deleted());
+        });
+    }
+
+    public void fail(SyncJob job, String errorMessage) {
+        finish(job.getId(), SyncJob.Status.FAILED, failed -> failed.setErrorMessage(
+                errorMessage != null && errorMessage.length() > 1000 ? errorMessage.substring(0, 1000) : errorMessage));
+    }
+
+    /**
+     * Jobs laissés RUNNING par une JVM arrêtée : le plus récent est rendu pour reprise,
+     * les autres passent INTERRUPTED.
+     * A appeler sous {@link ClusterSyncLock}, sinon le job d'un nœud vivant serait pris pour orphelin.
+     */
+    @Transactional
+    public Optional<SyncJob> claimResumable() {
+        List<SyncJob> running = syncJobRepository.findByStatusOrderByStartedAtDesc(SyncJob.Status.RUNNING);
+        SyncJob resumable = running.isEmpty() ? null : running.get(0);
+        for (SyncJob job : running) {
+            if (job != resumable) {
+                job.setStatus(SyncJob.Status.INTERRUPTED);
+                job.setFinishedAt(LocalDateTime.now());
+                log.warn("Job de synchronisation {} ({}) interrompu, non repris", job.getId(), job.getKind());
+            }
+        }
+        return Optional.ofNullable(resumable);
+    }
+
+    /**
+     * Job en cours le plus récent (éventuellement sur un autre nœud)
+     */
+    public Optional<SyncJob> findRunning() {
+        return syncJobRepository.findByStatusOrderByStartedAtDesc(SyncJob.Status.RUNNING).stream()
+                .findFirst();
+    }
+
+    private void finish(String id, SyncJob.Status status, Consumer<SyncJob> update) {
+        syncJobRepository.findById(id).ifPresent(job -> {
+            update.accept(job);
+            job.setStatus(status);
+            job.setFinishedAt(LocalDateTime.now());
+            syncJobRepository.save(job);
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package be.cm.todoapplication.service.sync;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Progression combinée d'un sync partitionné : chaque partition rapporte son propre compteur
+ * cumulé, l'agrégateur en maintient la somme et la transmet au listener
+ */
+public class SyncProgressAggregator {
+
+    private final AtomicIntegerArray perPartition;
+    private final AtomicInteger synced = new AtomicInteger();
+    private final IntConsumer listener;
+
+    /**
+     * @param listener reçoit le total combiné après chaque mise à jour (appelé depuis les workers)
+     */
+    public SyncProgressAggregator(int partitions, IntConsumer listener) {
+        this.perPartition = new AtomicIntegerArray(partitions);
+        this.listener = listener;
+    }
+
+    /**
+     * Callback de progression pour une partition, à passer à la boucle de tranches de cette partition
+     */
+    public IntConsumer forPartition(int partition) {
+        return partitionSynced -> {
+            int previous = perPartition.getAndSet(partition, partitionSynced);
+            listener.accept(synced.addAndGet(partitionSynced - previous));
+        };
+    }
+
+    public int synced() {
+        return synced.get();
+    }
+}
@@ -0,0 +1,47 @@
+package be.cm.todoapplication.service.sync;
+
+/**
+ * Bilan d'un sync de todos
+ *
+ * @param skipped todos ignorés (id, titre ou utilisateur manquant)
+ * @param failed  todos des tranches en erreur (annulées)
+ * @param deleted todos locaux absents de la source, supprimés en fin de sync complet
+ */
+public record SyncResult(int created, int updated, int unchanged, int skipped, int failed, int deleted) {
+
+    public static final SyncResult EMPTY = new SyncResult(0, 0, 0, 0, 0, 0);
+
+    public static SyncResult failed(int todos) {
+        return new SyncResult(0, 0, 0, 0, todos, 0);
+    }
+
+    public SyncResult plus(SyncResult other) {
+        return new SyncResult(created + other.created, updated + other.updated, unchanged + other.unchanged,
+                skipped + other.skipped, failed + other.failed, deleted + other.deleted);
+    }
+
+    public SyncResult withDeleted(int deleted) {
+        return new SyncResult(created, updated, unchanged, skipped, failed, deleted);
+    }
+
+    /**
+     * Todos écrits en base (créés ou modifiés)
+     */
+    public int written() {
+        return created + updated;
+    }
+
+    /**
+     * Todos traités sans erreur, écrits ou déjà à jour
+     */
+    public int processed() {
+        return created + updated + unchanged;
+    }
+
+    /**
+     * Todos reçus de la source, quel que soit leur sort (les suppressions ne sont pas comptées)
+     */
+    public int total() {
+        return processed() + skipped + failed;
+    }
+}
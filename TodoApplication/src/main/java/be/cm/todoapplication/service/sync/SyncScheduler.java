@@ -0,0 +1,32 @@
+package be.cm.todoapplication.service.sync;
+
+import be.cm.todoapplication.service.TodoSyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sync périodique depuis la source (app.sync.schedule.cron, "-" pour désactiver).
+ * Si un sync tourne déjà, ici ou sur un autre nœud, le déclenchement s'y rattache.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SyncScheduler {
+
+    static final String SCHEDULER_USER = "SYSTEM_SCHEDULER";
+
+    private final SyncSingleFlight syncSingleFlight;
+    private final TodoSyncService todoSyncService;
+
+    @Scheduled(cron = "${app.sync.schedule.cron:-}")
+    public void scheduledSync() {
+        log.info("Synchronisation planifiée");
+        syncSingleFlight.run(() -> todoSyncService.syncFromSourceAsync(SCHEDULER_USER))
+                .exceptionally(e -> {
+                    log.error("Synchronisation planifiée en échec: {}", e.getMessage());
+                    return null;
+                });
+    }
+}
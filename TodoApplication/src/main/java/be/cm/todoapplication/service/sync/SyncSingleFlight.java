@@ -0,0 +1,53 @@
+package be.cm.todoapplication.service.sync;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Un seul sync depuis la source à la fois dans la JVM : un déclenchement pendant qu'un sync tourne
+ * (admin, planificateur, reprise) se rattache à ce sync au lieu d'en lancer un second.
+ * Entre nœuds, voir {@link ClusterSyncLock}.
+ */
+@Component
+@Slf4j
+public class SyncSingleFlight {
+
+    private final AtomicReference<CompletableFuture<String>> inFlight = new AtomicReference<>();
+
+    /**
+     * @param start lance le sync et rend son batchId à la fin
+     * @return le sync lancé, ou celui déjà en cours
+     */
+    public CompletableFuture<String> run(Supplier<CompletableFuture<String>> start) {
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.compareAndExchange(null, flight);
+        if (running != null) {
+            log.info("Synchronisation déjà en cours, rattachement au sync existant");
+            return running;
+        }
+
+        try {
+            start.get().whenComplete((batchId, error) -> land(flight, batchId, error));
+        } catch (RuntimeException e) {
+            land(flight, null, e);
+        }
+        return flight;
+    }
+
+    public boolean isRunning() {
+        return inFlight.get() != null;
+    }
+
+    private void land(CompletableFuture<String> flight, String batchId, Throwable error) {
+        inFlight.compareAndSet(flight, null);
+        if (error != null) {
+            flight.completeExceptionally(error);
+        } else {
+            flight.complete(batchId);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package be.cm.todoapplication.service.sync;
+
+import be.cm.todoapplication.dto.TodoDTO;
+import be.cm.todoapplication.dto.UserDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Accès à la source du sync (JSONPlaceholder par défaut). Les URLs sont configurables :
+ * une URL {@code file:} lit un fichier local, pratique pour les tests ou un serveur bouchon.
+ * <p>
+ * Les requêtes HTTP sont conditionnelles : ETag et Last-Modified de la dernière réponse complète sont
+ * conservés avec une copie gzip du corps sous {@code app.sync.source.cache-path}. Un 304 sur les todos
+ * évite tout le sync, un 304 sur les utilisateurs relit la copie locale.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TodoSourceClient {
+
+    static final String TODOS = "todos";
+    static final String USERS = "users";
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    @Value("${app.sync.source.todos-url:https://jsonplaceholder.typicode.com/todos}")
+    private final String todosUrl;
+    @Value("${app.sync.source.users-url:https://jsonplaceholder.typicode.com/users}")
+    private final String usersUrl;
+    @Value("${app.sync.source.cache-path:./sync-cache/}")
+    private final String cachePath;
+
+    /**
+     * Utilisateurs de la source (quelques entrées, lus en une fois)
+     *
+     * @return id externe -> username
+     */
+    public Map<Long, String> fetchUsers() {
+        BodyHandler<UserDTO[]> parse = in -> objectMapper.readValue(in, UserDTO[].class);
+        UserDTO[] users = fetch(USERS, usersUrl, parse, parsed -> true)
+                .orElseGet(() -> readCopy(USERS, parse));
+        if (users == null) {
+            throw new IllegalStateException("Impossible de récupérer les utilisateurs depuis " + usersUrl);
+        }
+        return Arrays.stream(users).collect(Collectors.toMap(UserDTO::getId, UserDTO::getUsername));
+    }
+
+    /**
+     * Ouvre le flux des todos et le passe à {@code handler} au fil du téléchargement ;
+     * la connexion reste prise au pool jusqu'au retour de {@code handler}, qui ne doit pas ouvrir
+     * d'autre requête vers la source
+     *
+     * @param complete indique si le résultat couvre toute la réponse ; sinon les validateurs ne sont pas
+     *                 conservés et le prochain appel retéléchargera la source
+     * @return vide si la source n'a pas changé depuis le dernier appel complet (304)
+     */
+    public <T> Optional<T> streamTodos(TodoStreamHandler<T> handler, Predicate<T> complete) {
+        return fetch(TODOS, todosUrl, in -> {
+            try (JsonArrayReader<TodoDTO> todos = new JsonArrayReader<>(objectMapper, in, TodoDTO.class)) {
+                return handler.handle(todos);
+            }
+        }, complete);
+    }
+
+    private <T> Optional<T> fetch(String name, String url, BodyHandler<T> handler, Predicate<T> complete) {
+        URI uri = URI.create(url);
+        if ("file".equals(uri.getScheme())) {
+            try (InputStream in = Files.newInputStream(Path.of(uri))) {
+                return Optional.of(handler.handle(in));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Lecture de " + url + " impossible", e);
+            }
+        }
+
+        Properties validators = readValidators(name);
+        return restTemplate.execute(uri, HttpMethod.GET, request -> {
+            // Accept-Encoding gzip et décompression sont gérés par HttpClient
+            validators.stringPropertyNames()
+                    .forEach(header -> request.getHeaders().set(header, validators.getProperty(header)));
+        }, response -> {
+            if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                log.info("Source {} inchangée depuis le dernier sync (304)", uri);
+                return Optional.empty();
+            }
+
+            Path directory = Paths.get(cachePath);
+            Files.createDirectories(directory);
+            Path part = directory.resolve(name + ".json.gz.part");
+            T result;
+            try (OutputStream copy = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(part)));
+                 InputStream body = new CopyingInputStream(response.getBody(), copy)) {
+                result = handler.handle(body);
+                body.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(part);
+                throw e;
+            }
+
+            if (complete.test(result)) {
+                Files.move(part, directory.resolve(name + ".json.gz"), StandardCopyOption.REPLACE_EXISTING);
+                writeValidators(name, response.getHeaders());
+            } else {
+                Files.deleteIfExists(part);
+                Files.deleteIfExists(directory.resolve(name + ".properties"));
+            }
+            return Optional.of(result);
+        });
+    }
+
+    /**
+     * En-têtes conditionnels à envoyer, vides si aucune copie locale n'est disponible
+     */
+    private Properties readValidators(String name) {
+        Properties validators = new Properties();
+        Path directory = Paths.get(cachePath);
+        Path file = directory.resolve(name + ".properties");
+        if (!Files.exists(file) || !Files.exists(directory.resolve(name + ".json.gz"))) {
+            return validators;
+        }
+        try (Reader reader = Files.newBufferedReader(file)) {
+            validators.load(reader);
+        } catch (IOException e) {
+            log.warn("Validateurs de cache illisibles {}: {}", file, e.getMessage());
+            validators.clear();
+        }
+        return validators;
+    }
+
+    private void writeValidators(String name, HttpHeaders headers) throws IOException {
+        Properties validators = new Properties();
+        if (headers.getETag() != null) {
+            validators.setProperty(HttpHeaders.IF_NONE_MATCH, headers.getETag());
+        }
+        if (headers.getFirst(HttpHeaders.LAST_MODIFIED) != null) {
+            validators.setProperty(HttpHeaders.IF_MODIFIED_SINCE, headers.getFirst(HttpHeaders.LAST_MODIFIED));
+        }
+        try (Writer writer = Files.newBufferedWriter(Paths.get(cachePath).resolve(name + ".properties"))) {
+            validators.store(writer, null);
+        }
+    }
+
+    private <T> T readCopy(String name, BodyHandler<T> handler) {
+        Path file = Paths.get(cachePath).resolve(name + ".json.gz");
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return handler.handle(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture de la copie locale " + file + " impossible", e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface TodoStreamHandler<T> {
+        T handle(JsonArrayReader<TodoDTO> todos) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface BodyHandler<T> {
+        T handle(InputStream body) throws IOException;
+    }
+
+    /**
+     * Recopie dans {@code copy} tout ce qui est lu
+     */
+    private static final class CopyingInputStream extends FilterInputStream {
+
+        private final OutputStream copy;
+
+        private CopyingInputStream(InputStream in, OutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                copy.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                copy.write(buffer, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            return Math.max(read(new byte[(int) Math.min(n, 8192)]), 0);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+-- Index pour la pagination par curseur (keyset) sur (created_at, id) décroissants :
+-- chaque page est une lecture d'index bornée, quelle que soit sa profondeur
+
+CREATE INDEX idx_todos_user_created_at_id ON todos(user_id, created_at DESC, id DESC);
+CREATE INDEX idx_todos_created_at_id ON todos(created_at DESC, id DESC);
@@ -0,0 +1,11 @@
+-- Recherche plein texte sur le titre (poids A) et la description (poids B).
+-- Configuration 'simple' : pas de racinisation liée à une langue, les contenus étant mixtes (FR/EN/latin).
+-- Colonne générée : toujours à jour, sans trigger ni mapping JPA.
+
+ALTER TABLE todos ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX idx_todos_search_vector ON todos USING GIN (search_vector);
@@ -0,0 +1,5 @@
+-- Empreinte du contenu synchronisé (titre, statut, utilisateur) par external_id.
+-- Le sync ne réécrit une ligne que si l'empreinte change : pas de version/updated_at incrémentés à vide.
+-- NULL pour les lignes existantes : elles seront réécrites une fois au prochain sync.
+
+ALTER TABLE todos ADD COLUMN content_hash BIGINT;
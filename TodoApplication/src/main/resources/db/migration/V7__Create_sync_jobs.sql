@@ -0,0 +1,22 @@
+-- Jobs de synchronisation persistés : un sync interrompu (redémarrage de la JVM) reprend à son point de contrôle.
+-- checkpoint_position = nombre de todos de la source écrits sans trou depuis le début du flux,
+-- last_external_id = external_id du dernier de ces todos.
+
+CREATE TABLE sync_jobs (
+    id VARCHAR(36) PRIMARY KEY,
+    kind VARCHAR(20) NOT NULL,
+    requested_by VARCHAR(100),
+    status VARCHAR(20) NOT NULL,
+    checkpoint_position BIGINT NOT NULL DEFAULT 0,
+    last_external_id BIGINT,
+    created_count INTEGER,
+    updated_count INTEGER,
+    unchanged_count INTEGER,
+    deleted_count INTEGER,
+    error_message VARCHAR(1000),
+    started_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    finished_at TIMESTAMP
+);
+
+CREATE INDEX idx_sync_jobs_status ON sync_jobs(status);
@@ -0,0 +1,2 @@
+-- Le sync depuis une liste en mémoire (kind LIST) n'existe plus : ses jobs ne peuvent plus être lus
+DELETE FROM sync_jobs WHERE kind = 'LIST';
@@ -0,0 +1,3 @@
+-- Le sync compare désormais titre, statut et utilisateur directement : l'empreinte ne voyait pas
+-- les modifications locales d'un todo synchronisé, qui n'étaient alors plus écrasées par la source
+ALTER TABLE todos DROP COLUMN content_hash;
@@ -0,0 +1,82 @@
+package be.cm.todoapplication.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.protocol.BasicHttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour le client HTTP sortant d'AppConfiguration
+ */
+@DisplayName("AppConfiguration Tests")
+class AppConfigurationTest {
+
+    private final AppConfiguration configuration = new AppConfiguration();
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connectionManager = configuration.httpConnectionManager(4, 2,
+                Duration.ofSeconds(1), Duration.ofMillis(300), Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionManager.close();
+    }
+
+    @Test
+    @DisplayName("Une source qui ne répond pas doit échouer après le délai de réponse")
+    void restTemplate_ResponseTimeout() throws Exception {
+        RestTemplate restTemplate = configuration.restTemplate(connectionManager,
+                Duration.ofSeconds(1), Duration.ofMillis(300), Duration.ofSeconds(30), Duration.ofSeconds(60));
+
+        try (ServerSocket silent = new ServerSocket(0)) {
+            long start = System.nanoTime();
+            assertThrows(ResourceAccessException.class,
+                    () -> restTemplate.getForObject("http://localhost:" + silent.getLocalPort() + "/todos", String.class));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        }
+    }
+
+    @Test
+    @DisplayName("Doit publier les jauges du pool")
+    void httpClientPoolMetrics_RegistersGauges() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        configuration.httpClientPoolMetrics(connectionManager).bindTo(registry);
+
+        assertEquals(0, registry.get("http.client.pool.leased").gauge().value());
+        assertEquals(0, registry.get("http.client.pool.pending").gauge().value());
+        assertEquals(0, registry.get("http.client.pool.available").gauge().value());
+        assertEquals(4, registry.get("http.client.pool.max").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Le Keep-Alive annoncé doit être borné")
+    void cappedKeepAlive() {
+        BasicHttpResponse announced = new BasicHttpResponse(200);
+        announced.addHeader("Keep-Alive", "timeout=300");
+
+        var strategy = AppConfiguration.cappedKeepAlive(TimeValue.ofSeconds(30));
+
+        assertEquals(TimeValue.ofSeconds(30), strategy.getKeepAliveDuration(announced, new BasicHttpContext()));
+        announced.setHeader("Keep-Alive", "timeout=5");
+        assertEquals(TimeValue.ofSeconds(5), strategy.getKeepAliveDuration(announced, new BasicHttpContext()));
+        assertEquals(TimeValue.ofSeconds(30),
+                strategy.getKeepAliveDuration(new BasicHttpResponse(200), new BasicHttpContext()));
+    }
+}
@@ -0,0 +1,96 @@
+package be.cm.todoapplication.config;
+
+import be.cm.todoapplication.model.User;
+import be.cm.todoapplication.service.UserStatusCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour l'authentification par JWT de JwtRequestFilter
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JwtRequestFilter Tests")
+class JwtRequestFilterTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private UserStatusCache userStatusCache;
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private JwtRequestFilter filter;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtUtil, "secret", "mySecretKey123456789012345678901234567890");
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", 60_000);
+        jwtUtil.init();
+        filter = new JwtRequestFilter(userDetailsService, jwtUtil, userStatusCache);
+        token = jwtUtil.generateToken(User.builder().id(7L).username("testuser").role(User.Role.USER).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Doit authentifier depuis les claims sans charger l'utilisateur")
+    void doFilter_AuthenticatesEnabledUser() throws Exception {
+        // Given
+        when(userStatusCache.isEnabled(7L)).thenReturn(true);
+
+        // When
+        Authentication authentication = filter(token);
+
+        // Then
+        assertNotNull(authentication);
+        assertEquals("testuser", authentication.getName());
+        assertEquals(new AuthenticatedUser(7L, "testuser", User.Role.USER), authentication.getPrincipal());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    @DisplayName("Doit rejeter le jeton d'un utilisateur désactivé depuis son émission")
+    void doFilter_RejectsDisabledUser() throws Exception {
+        // Given
+        when(userStatusCache.isEnabled(7L)).thenReturn(false);
+
+        // When
+        Authentication authentication = filter(token);
+
+        // Then : la requête continue sans authentification, Spring Security répondra 401
+        assertNull(authentication);
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    // Passe la requête dans le filtre et retourne l'authentification posée pour la suite de la chaîne
+    private Authentication filter(String jwt) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/todos");
+        request.addHeader("Authorization", "Bearer " + jwt);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest(), "la chaîne doit continuer");
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
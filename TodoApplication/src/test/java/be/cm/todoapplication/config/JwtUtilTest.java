@@ -0,0 +1,61 @@
+package be.cm.todoapplication.config;
+
+import be.cm.todoapplication.model.User;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour les jetons émis et relus par JwtUtil
+ */
+@DisplayName("JwtUtil Tests")
+class JwtUtilTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtUtil, "secret", "mySecretKey123456789012345678901234567890");
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpiration", 60_000);
+        jwtUtil.init();
+    }
+
+    @Test
+    @DisplayName("Un jeton avec uid et rôle doit redonner le principal sans relire l'utilisateur")
+    void toAuthenticatedUser_RoundTrip() {
+        // Given
+        User user = User.builder().id(42L).username("admin").role(User.Role.ADMIN).build();
+
+        // When
+        Claims claims = jwtUtil.parseClaims(jwtUtil.generateToken(user));
+        AuthenticatedUser principal = jwtUtil.toAuthenticatedUser(claims);
+
+        // Then
+        assertEquals(new AuthenticatedUser(42L, "admin", User.Role.ADMIN), principal);
+        assertEquals("admin", principal.getName());
+        assertEquals("ROLE_ADMIN", principal.getAuthorities().get(0).getAuthority());
+    }
+
+    @Test
+    @DisplayName("Un ancien jeton sans uid ni rôle ne doit pas donner de principal")
+    void toAuthenticatedUser_LegacyToken() {
+        // Given : jeton émis comme avant l'ajout des claims, pour un utilisateur quelconque
+        UserDetails legacy = org.springframework.security.core.userdetails.User
+                .withUsername("testuser").password("x").authorities(List.of()).build();
+
+        // When
+        Claims claims = jwtUtil.parseClaims(jwtUtil.generateToken(legacy));
+
+        // Then : le filtre retombe sur le chargement de l'utilisateur
+        assertNull(jwtUtil.toAuthenticatedUser(claims));
+        assertNull(claims.get(JwtUtil.CLAIM_USER_ID));
+        assertTrue(jwtUtil.validateClaims(claims, legacy));
+    }
+}
@@ -0,0 +1,117 @@
+package be.cm.todoapplication.config;
+
+import be.cm.todoapplication.service.messaging.CompactMessageSerializer;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la configuration du producteur, du consommateur et des topics de KafkaConfig
+ */
+@DisplayName("KafkaConfig Tests")
+class KafkaConfigTest {
+
+    @Test
+    @DisplayName("Doit appliquer linger, taille de lot, compression et requêtes en vol")
+    void producerFactory_AppliesTuning() {
+        KafkaConfig kafkaConfig = new KafkaConfig();
+        ReflectionTestUtils.setField(kafkaConfig, "bootstrapServers", "localhost:9092");
+
+        ProducerFactory<String, Object> factory = kafkaConfig.producerFactory(
+                Duration.ofMillis(20), DataSize.ofKilobytes(128), "zstd", 3, KafkaConfig.MessageFormat.BINARY);
+
+        Map<String, Object> configs = factory.getConfigurationProperties();
+        assertEquals(20, configs.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(131072, configs.get(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertEquals("zstd", configs.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(3, configs.get(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION));
+        assertEquals(true, configs.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+        assertEquals(CompactMessageSerializer.class, configs.get(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG));
+    }
+
+    @Test
+    @DisplayName("Doit refuser plus de 5 requêtes en vol avec l'idempotence")
+    void producerTuning_RejectsTooManyInFlight() {
+        assertThrows(IllegalArgumentException.class, () -> new KafkaConfig.ProducerTuning(
+                Duration.ofMillis(10), DataSize.ofKilobytes(64), "lz4", 6));
+    }
+
+    @Test
+    @DisplayName("Doit refuser une compression inconnue")
+    void producerTuning_RejectsUnknownCompression() {
+        assertThrows(IllegalArgumentException.class, () -> new KafkaConfig.ProducerTuning(
+                Duration.ofMillis(10), DataSize.ofKilobytes(64), "brotli", 5));
+    }
+
+    @Test
+    @DisplayName("Doit appliquer fetch.min.bytes, fetch.max.wait.ms et max.poll.records")
+    void consumerFactory_AppliesTuning() {
+        KafkaConfig kafkaConfig = new KafkaConfig();
+        ReflectionTestUtils.setField(kafkaConfig, "bootstrapServers", "localhost:9092");
+
+        ConsumerFactory<String, Object> factory = kafkaConfig.consumerFactory(
+                DataSize.ofKilobytes(32), Duration.ofMillis(250), 200);
+
+        Map<String, Object> configs = factory.getConfigurationProperties();
+        assertEquals(32768, configs.get(ConsumerConfig.FETCH_MIN_BYTES_CONFIG));
+        assertEquals(250, configs.get(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG));
+        assertEquals(200, configs.get(ConsumerConfig.MAX_POLL_RECORDS_CONFIG));
+    }
+
+    @Test
+    @DisplayName("Doit refuser un max.poll.records nul")
+    void consumerTuning_RejectsZeroMaxPollRecords() {
+        assertThrows(IllegalArgumentException.class, () -> new KafkaConfig.ConsumerTuning(
+                DataSize.ofKilobytes(16), Duration.ofMillis(100), 0));
+    }
+
+    @Test
+    @DisplayName("Doit créer les topics avec le nombre de partitions configuré")
+    void topics_UseConfiguredPartitions() {
+        KafkaConfig kafkaConfig = new KafkaConfig();
+
+        NewTopic topic = kafkaConfig.notificationTopic(6, (short) 1);
+
+        assertEquals(KafkaConfig.NOTIFICATION_TOPIC, topic.name());
+        assertEquals(6, topic.numPartitions());
+        assertEquals((short) 1, topic.replicationFactor());
+    }
+
+    @Test
+    @DisplayName("Doit créer une étape de retry par tentative et un dead letter topic par topic")
+    void retryTopics_CoverEachTopic() {
+        List<NewTopic> topics = KafkaConfig.retryAndDeadLetterTopicList(2, (short) 1);
+
+        assertEquals(List.of(
+                        "pdf-processing-retry-0", "pdf-processing-retry-1", "pdf-processing-retry-2", "pdf-processing-dlt",
+                        "todo-sync-retry-0", "todo-sync-retry-1", "todo-sync-retry-2", "todo-sync-dlt",
+                        "notifications-retry-0", "notifications-retry-1", "notifications-retry-2", "notifications-dlt"),
+                topics.stream().map(NewTopic::name).toList());
+        assertTrue(topics.stream().allMatch(topic -> topic.numPartitions() == 2 && topic.replicationFactor() == 1));
+        assertEquals("notifications-retry-0", KafkaConfig.retryTopic(KafkaConfig.NOTIFICATION_TOPIC, 0));
+        assertArrayEquals(new String[]{"pdf-processing-retry-1", "todo-sync-retry-1", "notifications-retry-1"},
+                KafkaConfig.retryTopics(1));
+    }
+
+    @Test
+    @DisplayName("Doit retrouver le topic applicatif et l'étape d'un topic de retry ou de dead letter")
+    void retryTopicNames_RoundTrip() {
+        assertEquals(KafkaConfig.TODO_SYNC_TOPIC, KafkaConfig.mainTopic("todo-sync-retry-2"));
+        assertEquals(KafkaConfig.TODO_SYNC_TOPIC, KafkaConfig.mainTopic("todo-sync-dlt"));
+        assertEquals(KafkaConfig.TODO_SYNC_TOPIC, KafkaConfig.mainTopic(KafkaConfig.TODO_SYNC_TOPIC));
+        assertEquals(2, KafkaConfig.retryStage("todo-sync-retry-2"));
+        assertEquals(-1, KafkaConfig.retryStage(KafkaConfig.TODO_SYNC_TOPIC));
+    }
+}
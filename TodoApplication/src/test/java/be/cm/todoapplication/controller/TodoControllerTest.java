@@ -1,9 +1,12 @@
 package be.cm.todoapplication.controller;
 
+import be.cm.todoapplication.config.JwtUtil;
 import be.cm.todoapplication.dto.TodoDTO;
 import be.cm.todoapplication.service.PdfService;
 import be.cm.todoapplication.service.TodoService;
 import be.cm.todoapplication.service.TodoSyncService;
+import be.cm.todoapplication.service.UserStatusCache;
+import be.cm.todoapplication.service.pdf.TodoPdfCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +14,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -20,6 +24,7 @@ import java.util.Arrays;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -40,6 +45,15 @@ class TodoControllerTest {
     @MockBean
     private TodoSyncService todoSyncService;
 
+    @MockBean
+    private TodoPdfCache todoPdfCache;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private UserStatusCache userStatusCache;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -146,4 +160,65 @@ class TodoControllerTest {
         mockMvc.perform(post("/api/todos/sync").with(csrf()))
                 .andExpect(status().isForbidden());
     }
+
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    void shouldServeTodoPdfWithEtag() throws Exception {
+        // Given
+        when(todoService.getTodoById(1L)).thenReturn(Optional.of(versionedTodo(3L)));
+        when(todoPdfCache.get(any(TodoPdfCache.Key.class), any())).thenReturn(new byte[]{1, 2, 3});
+
+        // When & Then
+        mockMvc.perform(get("/api/todos/1/pdf"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"todo-1-v3-detail\""))
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(content().bytes(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    void shouldReturnNotModifiedWhenEtagMatches() throws Exception {
+        // Given
+        when(todoService.getTodoById(1L)).thenReturn(Optional.of(versionedTodo(3L)));
+
+        // When & Then
+        mockMvc.perform(get("/api/todos/1/pdf").header(HttpHeaders.IF_NONE_MATCH, "\"todo-1-v3-detail\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"todo-1-v3-detail\""));
+
+        // Ni lecture du cache ni génération pour un 304
+        verifyNoInteractions(todoPdfCache, pdfService);
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", roles = "USER")
+    void shouldServeNewEtagAfterTodoUpdate() throws Exception {
+        // Given : le todo passe de la version 3 à la version 4 entre les deux requêtes
+        when(todoService.getTodoById(1L))
+                .thenReturn(Optional.of(versionedTodo(3L)))
+                .thenReturn(Optional.of(versionedTodo(4L)));
+        when(todoPdfCache.get(any(TodoPdfCache.Key.class), any())).thenReturn(new byte[]{1});
+
+        // When
+        String etag = mockMvc.perform(get("/api/todos/1/pdf"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Then : l'ancien ETag ne correspond plus, le PDF de la nouvelle version est servi
+        mockMvc.perform(get("/api/todos/1/pdf").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"todo-1-v4-detail\""));
+        verify(todoPdfCache).get(eq(new TodoPdfCache.Key(1L, 4L, TodoPdfCache.TEMPLATE_DETAIL)), any());
+    }
+
+    private static TodoDTO versionedTodo(long version) {
+        TodoDTO todo = new TodoDTO();
+        todo.setId(1L);
+        todo.setTitle("Test Todo");
+        todo.setCompleted(false);
+        todo.setUsername("testuser");
+        todo.setVersion(version);
+        return todo;
+    }
 }
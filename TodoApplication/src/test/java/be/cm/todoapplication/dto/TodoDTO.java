@@ -14,6 +14,8 @@ public class TodoDTO {
 
     private Long id;
 
+    private Long version;
+
     @NotBlank(message = "Le titre est obligatoire")
     @Size(max = 255, message = "Le titre ne peut pas dépasser 255 caractères")
     private String title;
@@ -59,6 +61,14 @@ public class TodoDTO {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getTitle() {
         return title;
     }
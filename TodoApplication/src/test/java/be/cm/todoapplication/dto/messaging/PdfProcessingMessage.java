@@ -16,6 +16,9 @@ public class PdfProcessingMessage {
     private ProcessingStatus status;
     private String errorMessage;
     private LocalDateTime timestamp;
+    private Long processedRows;
+    private Long totalRows;
+    private Integer pageCount;
 
     public enum ProcessingStatus {
         PENDING, PROCESSING, COMPLETED, FAILED
@@ -43,6 +46,17 @@ public class PdfProcessingMessage {
                 ProcessingStatus.PENDING, null, LocalDateTime.now());
     }
 
+    public static PdfProcessingMessage createProgress(String taskId, String userId, String todoId,
+                                                      String fileName, String filePath, long processedRows,
+                                                      long totalRows, int pageCount) {
+        PdfProcessingMessage message = new PdfProcessingMessage(taskId, userId, todoId, fileName, filePath,
+                ProcessingStatus.PROCESSING, null, LocalDateTime.now());
+        message.setProcessedRows(processedRows);
+        message.setTotalRows(totalRows);
+        message.setPageCount(pageCount);
+        return message;
+    }
+
     // Getters et Setters
     public String getTaskId() { return taskId; }
     public void setTaskId(String taskId) { this.taskId = taskId; }
@@ -68,6 +82,15 @@ public class PdfProcessingMessage {
     public LocalDateTime getTimestamp() { return timestamp; }
     public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
 
+    public Long getProcessedRows() { return processedRows; }
+    public void setProcessedRows(Long processedRows) { this.processedRows = processedRows; }
+
+    public Long getTotalRows() { return totalRows; }
+    public void setTotalRows(Long totalRows) { this.totalRows = totalRows; }
+
+    public Integer getPageCount() { return pageCount; }
+    public void setPageCount(Integer pageCount) { this.pageCount = pageCount; }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -15,6 +15,10 @@ public class TodoSyncMessage {
     private SyncStatus status;
     private String errorMessage;
     private LocalDateTime timestamp;
+    private int createdTodos;
+    private int updatedTodos;
+    private int unchangedTodos;
+    private int deletedTodos;
 
     public enum SyncAction {
         FETCH_FROM_JSONPLACEHOLDER, UPDATE_LOCAL_TODOS, COMPLETE_SYNC
@@ -69,4 +73,16 @@ public class TodoSyncMessage {
 
     public LocalDateTime getTimestamp() { return timestamp; }
     public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+
+    public int getCreatedTodos() { return createdTodos; }
+    public void setCreatedTodos(int createdTodos) { this.createdTodos = createdTodos; }
+
+    public int getUpdatedTodos() { return updatedTodos; }
+    public void setUpdatedTodos(int updatedTodos) { this.updatedTodos = updatedTodos; }
+
+    public int getUnchangedTodos() { return unchangedTodos; }
+    public void setUnchangedTodos(int unchangedTodos) { this.unchangedTodos = unchangedTodos; }
+
+    public int getDeletedTodos() { return deletedTodos; }
+    public void setDeletedTodos(int deletedTodos) { this.deletedTodos = deletedTodos; }
 }
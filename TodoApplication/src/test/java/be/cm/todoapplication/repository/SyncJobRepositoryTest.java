@@ -0,0 +1,83 @@
+package be.cm.todoapplication.repository;
+
+import be.cm.todoapplication.model.SyncJob;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests d'intégration du point de contrôle des jobs de synchronisation
+ */
+@DisplayName("SyncJobRepository Tests")
+class SyncJobRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private SyncJobRepository syncJobRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Doit avancer le point de contrôle d'un job en cours")
+    void advanceCheckpoint_RunningJob() {
+        // Given
+        persist("job-1", SyncJob.Status.RUNNING, 10);
+
+        // When
+        int updated = syncJobRepository.advanceCheckpoint("job-1", 20, 42L, LocalDateTime.now());
+
+        // Then
+        assertEquals(1, updated);
+        SyncJob job = reload("job-1");
+        assertEquals(20L, job.getCheckpointPosition());
+        assertEquals(42L, job.getLastExternalId());
+    }
+
+    @Test
+    @DisplayName("Ne doit pas reculer le point de contrôle")
+    void advanceCheckpoint_IgnoresOlderPosition() {
+        // Given
+        persist("job-1", SyncJob.Status.RUNNING, 20);
+
+        // When
+        int updated = syncJobRepository.advanceCheckpoint("job-1", 10, 5L, LocalDateTime.now());
+
+        // Then
+        assertEquals(0, updated);
+        assertEquals(20L, reload("job-1").getCheckpointPosition());
+    }
+
+    @Test
+    @DisplayName("Ne doit plus avancer le point de contrôle d'un job terminé")
+    void advanceCheckpoint_IgnoresFinishedJob() {
+        // Given
+        persist("job-1", SyncJob.Status.FAILED, 10);
+
+        // When
+        int updated = syncJobRepository.advanceCheckpoint("job-1", 20, 42L, LocalDateTime.now());
+
+        // Then
+        assertEquals(0, updated);
+        assertEquals(10L, reload("job-1").getCheckpointPosition());
+    }
+
+    private void persist(String id, SyncJob.Status status, long position) {
+        entityManager.persistAndFlush(SyncJob.builder()
+                .id(id)
+                .kind(SyncJob.Kind.SOURCE)
+                .status(status)
+                .checkpointPosition(position)
+                .build());
+        entityManager.clear();
+    }
+
+    private SyncJob reload(String id) {
+        entityManager.clear();
+        return entityManager.find(SyncJob.class, id);
+    }
+}
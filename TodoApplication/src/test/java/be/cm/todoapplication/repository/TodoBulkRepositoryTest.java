@@ -0,0 +1,137 @@
+package be.cm.todoapplication.repository;
+
+import be.cm.todoapplication.repository.TodoBulkRepository.TodoUpsert;
+import be.cm.todoapplication.repository.TodoBulkRepository.UpsertCounts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests d'intégration des écritures ensemblistes du sync sur PostgreSQL
+ */
+@Import(TodoBulkRepository.class)
+@DisplayName("TodoBulkRepository Tests")
+class TodoBulkRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private TodoBulkRepository todoBulkRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'testuser'", Long.class);
+    }
+
+    @Test
+    @DisplayName("Doit insérer les nouveaux todos puis ignorer ceux identiques à la source")
+    void upsertChangedByExternalId_InsertsThenSkipsUnchanged() {
+        // Given
+        List<TodoUpsert> rows = List.of(new TodoUpsert(1, "premier", false, userId),
+                new TodoUpsert(2, "second", true, userId));
+
+        // When
+        UpsertCounts created = todoBulkRepository.upsertChangedByExternalId(rows, "sync");
+        UpsertCounts replayed = todoBulkRepository.upsertChangedByExternalId(rows, "sync");
+
+        // Then
+        assertEquals(new UpsertCounts(2, 0), created);
+        assertEquals(new UpsertCounts(0, 0), replayed);
+        assertEquals(0L, version(1));
+    }
+
+    @Test
+    @DisplayName("Doit créer, mettre à jour et ignorer les lignes d'une même tranche en une instruction")
+    void upsertChangedByExternalId_MixedChunk() {
+        // Given
+        long adminId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'admin'", Long.class);
+        todoBulkRepository.upsertChangedByExternalId(List.of(new TodoUpsert(1, "inchangé", false, userId),
+                new TodoUpsert(2, "à compléter", false, userId)), "sync-1");
+
+        // When : 1 identique, 2 terminé et réattribué, 3 nouveau
+        UpsertCounts counts = todoBulkRepository.upsertChangedByExternalId(List.of(
+                new TodoUpsert(1, "inchangé", false, userId),
+                new TodoUpsert(2, "à compléter", true, adminId),
+                new TodoUpsert(3, "nouveau", false, adminId)), "sync-2");
+
+        // Then
+        assertEquals(new UpsertCounts(1, 1), counts);
+        assertEquals(Map.of("completed", true, "user_id", adminId, "created_by", "sync-1", "updated_by", "sync-2"),
+                jdbcTemplate.queryForMap("SELECT completed, user_id, created_by, updated_by FROM todos "
+                        + "WHERE external_id = 2"));
+        assertEquals(1L, version(2));
+        assertNull(jdbcTemplate.queryForObject("SELECT updated_by FROM todos WHERE external_id = 1", String.class));
+        assertEquals("sync-2", jdbcTemplate.queryForObject(
+                "SELECT created_by FROM todos WHERE external_id = 3", String.class));
+    }
+
+    @Test
+    @DisplayName("Doit écraser une modification locale d'un todo synchronisé")
+    void upsertChangedByExternalId_OverwritesLocalEdit() {
+        // Given : le todo synchronisé a été renommé localement
+        TodoUpsert source = new TodoUpsert(1, "titre source", false, userId);
+        todoBulkRepository.upsertChangedByExternalId(List.of(source), "sync");
+        jdbcTemplate.update("UPDATE todos SET title = 'titre local', version = version + 1 WHERE external_id = 1");
+
+        // When
+        UpsertCounts counts = todoBulkRepository.upsertChangedByExternalId(List.of(source), "sync");
+
+        // Then
+        assertEquals(new UpsertCounts(0, 1), counts);
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT title, updated_by FROM todos WHERE external_id = 1");
+        assertEquals("titre source", row.get("title"));
+        assertEquals("sync", row.get("updated_by"));
+        assertEquals(2L, version(1));
+    }
+
+    @Test
+    @DisplayName("Doit supprimer les todos synchronisés absents de la source et garder les todos locaux")
+    void deleteExternalNotIn_DeletesUnseenExternalTodos() {
+        // Given : trois todos synchronisés et un todo créé localement
+        todoBulkRepository.upsertChangedByExternalId(List.of(new TodoUpsert(1, "vu", false, userId),
+                new TodoUpsert(2, "disparu", false, userId),
+                new TodoUpsert(3, "vu aussi", true, userId)), "sync");
+        jdbcTemplate.update("INSERT INTO todos (title, completed, user_id, version) VALUES ('local', false, ?, 0)",
+                userId);
+
+        // When
+        int deleted = todoBulkRepository.deleteExternalNotIn(List.of(1L, 3L));
+
+        // Then
+        assertEquals(1, deleted);
+        assertEquals(List.of("local", "vu", "vu aussi"),
+                jdbcTemplate.queryForList("SELECT title FROM todos ORDER BY title", String.class));
+    }
+
+    @Test
+    @DisplayName("Doit supprimer tous les todos synchronisés si la source est vide")
+    void deleteExternalNotIn_EmptySource() {
+        // Given
+        todoBulkRepository.upsertChangedByExternalId(List.of(new TodoUpsert(1, "disparu", false, userId)), "sync");
+        jdbcTemplate.update("INSERT INTO todos (title, completed, user_id, version) VALUES ('local', false, ?, 0)",
+                userId);
+
+        // When
+        int deleted = todoBulkRepository.deleteExternalNotIn(List.of());
+
+        // Then
+        assertEquals(1, deleted);
+        assertEquals(List.of("local"), jdbcTemplate.queryForList("SELECT title FROM todos", String.class));
+    }
+
+    private long version(long externalId) {
+        return jdbcTemplate.queryForObject("SELECT version FROM todos WHERE external_id = ?", Long.class, externalId);
+    }
+}
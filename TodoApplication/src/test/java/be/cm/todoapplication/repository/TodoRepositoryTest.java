@@ -0,0 +1,169 @@
+package be.cm.todoapplication.repository;
+
+import be.cm.todoapplication.model.Todo;
+import be.cm.todoapplication.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests d'intégration des listes paginées et de la recherche plein texte de TodoRepository sur PostgreSQL
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("TodoRepository Tests")
+class TodoRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private long userId;
+    private long adminId;
+
+    @BeforeEach
+    void setUp() {
+        userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'testuser'", Long.class);
+        adminId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'admin'", Long.class);
+        insertTodo("courses du samedi", false, userId);
+        insertTodo("réviser le rapport", true, userId);
+        insertTodo("payer les factures", false, userId);
+        insertTodo("préparer la réunion", false, adminId);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Une page d'un utilisateur doit coûter une requête et un comptage, utilisateur compris")
+    void findByUserWithOptionalCompleted_OneSelectAndOneCount() {
+        // Given
+        User user = userRepository.getReferenceById(userId);
+        startCounting();
+
+        // When
+        Page<Todo> page = todoRepository.findByUserWithOptionalCompleted(user, null,
+                PageRequest.of(0, 2, Sort.by("id")));
+        List<String> usernames = page.getContent().stream().map(Todo::getUsername).toList();
+
+        // Then
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of("testuser", "testuser"), usernames);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Une page de tous les utilisateurs doit charger chaque utilisateur dans la même requête")
+    void findByUserWithOptionalCompleted_AllUsers() {
+        // Given
+        startCounting();
+
+        // When
+        Page<Todo> page = todoRepository.findByUserWithOptionalCompleted(null, false,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+        List<String> usernames = page.getContent().stream().map(Todo::getUsername).toList();
+
+        // Then
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of("admin", "testuser"), usernames);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("La recherche doit classer une correspondance dans le titre avant la description")
+    void searchByRank_TitleBeforeDescription() {
+        // Given
+        insertTodo("ranger le bureau", "avant de payer les factures", false, userId);
+
+        // When
+        Page<Todo> page = todoRepository.searchByRank(null, null, "factures", PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(2, page.getTotalElements());
+        assertEquals(List.of("payer les factures", "ranger le bureau"),
+                page.getContent().stream().map(Todo::getTitle).toList());
+    }
+
+    @Test
+    @DisplayName("La recherche doit appliquer les filtres utilisateur et statut au résultat et au total")
+    void searchByRank_Filters() {
+        assertEquals(0, todoRepository.searchByRank(adminId, null, "factures", PageRequest.of(0, 10))
+                .getTotalElements());
+        assertEquals(1, todoRepository.searchByRank(userId, null, "factures", PageRequest.of(0, 10))
+                .getTotalElements());
+        assertEquals(0, todoRepository.searchByRank(null, false, "rapport", PageRequest.of(0, 10))
+                .getTotalElements());
+        assertEquals(1, todoRepository.searchByRank(null, true, "rapport", PageRequest.of(0, 10))
+                .getTotalElements());
+    }
+
+    @Test
+    @DisplayName("La recherche doit accepter la syntaxe utilisateur sans erreur")
+    void searchByRank_WebSearchSyntax() {
+        // Given
+        insertTodo("ranger le bureau", "avant de payer les factures", false, userId);
+
+        // When
+        Page<Todo> excluded = todoRepository.searchByRank(null, null, "factures -ranger", PageRequest.of(0, 10));
+        Page<Todo> unbalanced = todoRepository.searchByRank(null, null, "\"le bureau", PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(List.of("payer les factures"), excluded.getContent().stream().map(Todo::getTitle).toList());
+        assertEquals(List.of("ranger le bureau"), unbalanced.getContent().stream().map(Todo::getTitle).toList());
+    }
+
+    @Test
+    @DisplayName("La recherche doit paginer dans l'ordre du rang avec le total de toutes les pages")
+    void searchByRank_Pagination() {
+        // Given
+        insertTodo("factures de mars", null, false, userId);
+        insertTodo("factures d'avril", null, false, userId);
+
+        // When
+        Page<Todo> first = todoRepository.searchByRank(null, null, "factures", PageRequest.of(0, 2));
+        Page<Todo> second = todoRepository.searchByRank(null, null, "factures", PageRequest.of(1, 2));
+
+        // Then
+        assertEquals(3, first.getTotalElements());
+        assertEquals(2, first.getContent().size());
+        assertEquals(1, second.getContent().size());
+        assertTrue(first.getContent().stream().noneMatch(second.getContent()::contains));
+    }
+
+    private void startCounting() {
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    private void insertTodo(String title, boolean completed, long ownerId) {
+        insertTodo(title, null, completed, ownerId);
+    }
+
+    private void insertTodo(String title, String description, boolean completed, long ownerId) {
+        jdbcTemplate.update("INSERT INTO todos (title, description, completed, user_id, version) VALUES (?, ?, ?, ?, 0)",
+                title, description, completed, ownerId);
+    }
+}
@@ -0,0 +1,112 @@
+package be.cm.todoapplication.repository;
+
+import be.cm.todoapplication.model.User;
+import be.cm.todoapplication.service.KafkaMessageService;
+import be.cm.todoapplication.service.TodoSyncService;
+import be.cm.todoapplication.service.WebSocketNotificationService;
+import be.cm.todoapplication.service.sync.AdaptiveSyncThrottle;
+import be.cm.todoapplication.service.sync.ClusterSyncLock;
+import be.cm.todoapplication.service.sync.SyncJobService;
+import be.cm.todoapplication.service.sync.TodoSourceClient;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests d'intégration de la création des utilisateurs importés par le sync sur PostgreSQL
+ */
+@Import(UserBulkRepository.class)
+@DisplayName("UserBulkRepository Tests")
+class UserBulkRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private UserBulkRepository userBulkRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Doit insérer les nouveaux utilisateurs et ignorer ceux qui existent déjà")
+    void insertIfAbsent_SkipsExistingUsers() {
+        // Given : testuser existe déjà (V1), avec un autre email
+        List<User> users = List.of(syncUser("Bret"), syncUser("testuser"));
+
+        // When
+        userBulkRepository.insertIfAbsent(users);
+
+        // Then
+        assertEquals(List.of("test@todoapp.com"), jdbcTemplate.queryForList(
+                "SELECT email FROM users WHERE username = 'testuser'", String.class));
+        Map<String, Object> created = jdbcTemplate.queryForMap(
+                "SELECT email, role, enabled FROM users WHERE username = 'Bret'");
+        assertEquals(Map.of("email", "bret@jsonplaceholder.fake", "role", "USER", "enabled", false), created);
+    }
+
+    @Test
+    @DisplayName("Doit ignorer un utilisateur dont l'email est déjà pris")
+    void insertIfAbsent_SkipsTakenEmail() {
+        // When
+        userBulkRepository.insertIfAbsent(List.of(User.builder()
+                .username("Antonette").email("test@todoapp.com").password("$2a$10$disabled")
+                .role(User.Role.USER).enabled(false).build()));
+
+        // Then
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM users WHERE username = 'Antonette'", Integer.class));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Le sync doit retrouver un utilisateur existant par username et créer les autres")
+    void resolveSyncUsers_ExistingAndNewUsers() {
+        // Given : resolveSyncUsers commite dans sa propre transaction, hors de celle du test
+        TodoSyncService service = new TodoSyncService(mock(TodoBulkRepository.class), userRepository,
+                userBulkRepository, transactionManager, mock(AdaptiveSyncThrottle.class), Runnable::run,
+                mock(KafkaMessageService.class), mock(WebSocketNotificationService.class),
+                mock(TodoSourceClient.class), mock(SyncJobService.class), mock(ClusterSyncLock.class), 1);
+        long testUserId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'testuser'", Long.class);
+
+        try {
+            // When
+            Map<Long, User> users = service.resolveSyncUsers(Map.of(1L, "testuser", 2L, "Bret"));
+
+            // Then
+            assertEquals(testUserId, users.get(1L).getId());
+            User created = users.get(2L);
+            assertNotNull(created.getId());
+            assertEquals("Bret", created.getUsername());
+            assertFalse(created.isEnabled());
+            assertEquals(created.getId(), jdbcTemplate.queryForObject(
+                    "SELECT id FROM users WHERE username = 'Bret'", Long.class));
+        } finally {
+            jdbcTemplate.update("DELETE FROM users WHERE username = 'Bret'");
+        }
+    }
+
+    private static User syncUser(String username) {
+        return User.builder()
+                .username(username)
+                .email(username.toLowerCase() + "@jsonplaceholder.fake")
+                .password("$2a$10$disabled")
+                .role(User.Role.USER)
+                .enabled(false)
+                .build();
+    }
+}
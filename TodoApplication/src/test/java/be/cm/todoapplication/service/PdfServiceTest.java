@@ -0,0 +1,181 @@
+package be.cm.todoapplication.service;
+
+import be.cm.todoapplication.dto.TodoDTO;
+import be.cm.todoapplication.dto.messaging.PdfProcessingMessage;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour la génération en flux des PDFs volumineux de PdfService
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PdfService Tests")
+class PdfServiceTest {
+
+    // Chaque tranche lue fait avancer l'horloge de 600 ms : une progression sur deux est publiée
+    private static final long CHUNK_READ_MS = 600;
+    private static final Pattern ROW_TITLE = Pattern.compile("todo-(\\d+)");
+
+    @Mock
+    private KafkaMessageService kafkaMessageService;
+
+    @Mock
+    private WebSocketNotificationService webSocketNotificationService;
+
+    @TempDir
+    Path storage;
+
+    private final AtomicLong now = new AtomicLong();
+    private PdfService pdfService;
+
+    @BeforeEach
+    void setUp() {
+        pdfService = new PdfService(kafkaMessageService, webSocketNotificationService,
+                storage.toString() + "/", now::get);
+    }
+
+    @Test
+    @DisplayName("Doit écrire toutes les tranches, renommer le fichier et publier une progression limitée")
+    void processLargePdfAsync_MultiChunk() throws Exception {
+        // Given : 4 tranches pleines et une tranche partielle
+        List<List<TodoDTO>> chunks = List.of(todos(1, 500), todos(501, 500), todos(1001, 500),
+                todos(1501, 500), todos(2001, 250));
+        Iterable<List<TodoDTO>> todoChunks = () -> chunks.stream()
+                .peek(chunk -> now.addAndGet(CHUNK_READ_MS))
+                .iterator();
+
+        // When
+        String taskId = pdfService.processLargePdfAsync("user1", "bulk", 2250, todoChunks).get();
+
+        // Then : le PDF final existe, sans fichier .part
+        Path pdf = storage.resolve("todos-bulk-" + taskId + ".pdf");
+        assertTrue(Files.exists(pdf));
+        try (Stream<Path> files = Files.list(storage)) {
+            assertEquals(List.of(pdf), files.toList());
+        }
+        assertEquals(2250, renderedRows(pdf));
+
+        // Then : progressions à 1000 et 2000 lignes (au plus une par seconde), puis le total
+        List<PdfProcessingMessage> progress = sentMessages().stream()
+                .filter(message -> message.getStatus() == PdfProcessingMessage.ProcessingStatus.PROCESSING)
+                .toList();
+        assertEquals(List.of(1000L, 2000L, 2250L),
+                progress.stream().map(PdfProcessingMessage::getProcessedRows).toList());
+        PdfProcessingMessage last = progress.get(progress.size() - 1);
+        assertEquals(2250L, last.getTotalRows());
+        assertTrue(last.getPageCount() > 1);
+        assertEquals(PdfProcessingMessage.ProcessingStatus.COMPLETED,
+                sentMessages().get(sentMessages().size() - 1).getStatus());
+    }
+
+    @Test
+    @DisplayName("Doit supprimer le fichier .part si la lecture d'une tranche échoue")
+    void processLargePdfAsync_FailedChunk() throws Exception {
+        // Given
+        Iterable<List<TodoDTO>> todoChunks = () -> Stream.<List<TodoDTO>>of(todos(1, 500), null)
+                .map(chunk -> {
+                    if (chunk == null) {
+                        throw new IllegalStateException("lecture impossible");
+                    }
+                    return chunk;
+                })
+                .iterator();
+
+        // When
+        assertTrue(pdfService.processLargePdfAsync("user1", "bulk", 1000, todoChunks).isCompletedExceptionally());
+
+        // Then
+        try (Stream<Path> files = Files.list(storage)) {
+            assertEquals(0, files.count());
+        }
+        verify(webSocketNotificationService).sendPdfProcessingUpdate(eq("user1"), anyString(), eq("FAILED"), anyString());
+    }
+
+    @Test
+    @DisplayName("Doit refermer le document et son flux si une tranche échoue en cours de rendu")
+    void writeBulkTodosPdf_ClosesDocumentOnFailure() {
+        // Given
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        Iterable<List<TodoDTO>> todoChunks = () -> Stream.<List<TodoDTO>>of(todos(1, 1500), null)
+                .map(chunk -> {
+                    if (chunk == null) {
+                        throw new IllegalStateException("lecture impossible");
+                    }
+                    return chunk;
+                })
+                .iterator();
+
+        // When
+        assertThrows(IllegalStateException.class,
+                () -> pdfService.writeBulkTodosPdf(todoChunks, out, (renderedRows, pageCount) -> { }));
+
+        // Then
+        assertTrue(closed.get());
+    }
+
+    private List<PdfProcessingMessage> sentMessages() {
+        ArgumentCaptor<PdfProcessingMessage> captor = ArgumentCaptor.forClass(PdfProcessingMessage.class);
+        verify(kafkaMessageService, atLeastOnce()).sendPdfProcessingMessage(captor.capture());
+        return captor.getAllValues();
+    }
+
+    // Compte les lignes distinctes du tableau, d'après les titres extraits de chaque page
+    private static long renderedRows(Path pdf) throws Exception {
+        PdfReader reader = new PdfReader(pdf.toString());
+        try {
+            LongStream.Builder ids = LongStream.builder();
+            for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                Matcher matcher = ROW_TITLE.matcher(PdfTextExtractor.getTextFromPage(reader, page));
+                while (matcher.find()) {
+                    ids.add(Long.parseLong(matcher.group(1)));
+                }
+            }
+            return ids.build().distinct().count();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static List<TodoDTO> todos(long firstId, int count) {
+        return LongStream.range(firstId, firstId + count)
+                .mapToObj(PdfServiceTest::todo)
+                .toList();
+    }
+
+    private static TodoDTO todo(long id) {
+        TodoDTO dto = new TodoDTO();
+        dto.setId(id);
+        dto.setUserId(1L);
+        dto.setTitle("todo-" + id);
+        dto.setCompleted(id % 2 == 0);
+        return dto;
+    }
+}
@@ -0,0 +1,40 @@
+package be.cm.todoapplication.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour TodoCursor
+ */
+@DisplayName("TodoCursor Tests")
+class TodoCursorTest {
+
+    @Test
+    @DisplayName("Doit relire un curseur encodé à l'identique")
+    void encodeDecode_RoundTrip() {
+        TodoCursor cursor = new TodoCursor(LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123456000), 42L);
+
+        String encoded = cursor.encode();
+
+        assertFalse(encoded.contains("|"));
+        assertEquals(cursor, TodoCursor.decode(encoded));
+    }
+
+    @Test
+    @DisplayName("Sans curseur, doit partir du début de la liste")
+    void decode_NullOrBlank() {
+        assertEquals(TodoCursor.START, TodoCursor.decode(null));
+        assertEquals(TodoCursor.START, TodoCursor.decode(" "));
+    }
+
+    @Test
+    @DisplayName("Doit rejeter un curseur invalide")
+    void decode_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> TodoCursor.decode("pas-un-curseur"));
+        assertThrows(IllegalArgumentException.class, () -> TodoCursor.decode("%%%"));
+    }
+}
@@ -0,0 +1,266 @@
+package be.cm.todoapplication.service;
+
+import be.cm.todoapplication.dto.TodoDTO;
+import be.cm.todoapplication.model.User;
+import be.cm.todoapplication.repository.TodoBulkRepository;
+import be.cm.todoapplication.repository.TodoBulkRepository.TodoUpsert;
+import be.cm.todoapplication.repository.TodoBulkRepository.UpsertCounts;
+import be.cm.todoapplication.repository.UserBulkRepository;
+import be.cm.todoapplication.repository.UserRepository;
+import be.cm.todoapplication.service.sync.AdaptiveSyncThrottle;
+import be.cm.todoapplication.service.sync.ClusterSyncLock;
+import be.cm.todoapplication.service.sync.JsonArrayReader;
+import be.cm.todoapplication.service.sync.SyncCheckpoint;
+import be.cm.todoapplication.service.sync.SyncJobService;
+import be.cm.todoapplication.service.sync.SyncResult;
+import be.cm.todoapplication.service.sync.TodoSourceClient;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour TodoSyncService
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TodoSyncService Tests")
+class TodoSyncServiceTest {
+
+    private static TodoDTO todo(long id, long userId) {
+        TodoDTO dto = new TodoDTO();
+        dto.setId(id);
+        dto.setUserId(userId);
+        dto.setTitle("todo " + id);
+        return dto;
+    }
+
+    @Nested
+    @DisplayName("Sync en flux")
+    class StreamTests {
+
+        private static final String SOURCE = "[" +
+                "{\"userId\":1,\"id\":1,\"title\":\"a\",\"completed\":false}," +
+                "{\"userId\":2,\"id\":2,\"title\":\"b\",\"completed\":true}," +
+                "{\"userId\":1,\"id\":3,\"title\":\"c\",\"completed\":false}," +
+                "{\"userId\":2,\"id\":2,\"title\":\"b bis\",\"completed\":false}," +
+                "{\"userId\":1,\"id\":4,\"title\":\"d\",\"completed\":true}," +
+                "{\"userId\":2,\"id\":5,\"title\":\"e\",\"completed\":false}]";
+
+        @Mock
+        private TodoBulkRepository todoBulkRepository;
+
+        @Mock
+        private PlatformTransactionManager transactionManager;
+
+        @Mock
+        private AdaptiveSyncThrottle syncThrottle;
+
+        private final ObjectMapper mapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        private final Map<Long, User> users = Map.of(
+                1L, User.builder().id(10L).username("Bret").build(),
+                2L, User.builder().id(20L).username("Antonette").build());
+
+        private TodoSyncService service;
+
+        @BeforeEach
+        void setUp() {
+            lenient().when(syncThrottle.nextChunkSize()).thenReturn(2);
+            service = new TodoSyncService(todoBulkRepository, mock(UserRepository.class), mock(UserBulkRepository.class),
+                    transactionManager, syncThrottle, Runnable::run, mock(KafkaMessageService.class),
+                    mock(WebSocketNotificationService.class), mock(TodoSourceClient.class), mock(SyncJobService.class),
+                    mock(ClusterSyncLock.class), 2);
+        }
+
+        private SyncResult sync() throws IOException {
+            return sync(SyncCheckpoint.none());
+        }
+
+        private SyncResult sync(SyncCheckpoint checkpoint) throws IOException {
+            return sync(SOURCE, checkpoint);
+        }
+
+        private SyncResult sync(String source, SyncCheckpoint checkpoint) throws IOException {
+            try (JsonArrayReader<TodoDTO> todos = new JsonArrayReader<>(mapper,
+                    new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)), TodoDTO.class)) {
+                return service.syncTodoStream(todos, users, processed -> { }, checkpoint);
+            }
+        }
+
+        @Test
+        @DisplayName("Doit écrire par tranches bornées d'un seul utilisateur et supprimer les todos absents")
+        @SuppressWarnings("unchecked")
+        void syncTodoStream_WritesBoundedChunksPerUser() throws IOException {
+            when(todoBulkRepository.upsertChangedByExternalId(anyList(), anyString()))
+                    .thenAnswer(invocation -> new UpsertCounts(invocation.<List<?>>getArgument(0).size(), 0));
+            when(todoBulkRepository.deleteExternalNotIn(anyCollection())).thenReturn(3);
+
+            SyncResult result = sync();
+
+            assertEquals(new SyncResult(5, 0, 0, 1, 0, 3), result);
+
+            ArgumentCaptor<List<TodoUpsert>> chunks = ArgumentCaptor.forClass(List.class);
+            verify(todoBulkRepository, times(3)).upsertChangedByExternalId(chunks.capture(), anyString());
+            for (List<TodoUpsert> chunk : chunks.getAllValues()) {
+                assertTrue(chunk.size() <= 2);
+                assertEquals(1, chunk.stream().map(TodoUpsert::userId).distinct().count());
+            }
+
+            ArgumentCaptor<Collection<Long>> seen = ArgumentCaptor.forClass(Collection.class);
+            verify(todoBulkRepository).deleteExternalNotIn(seen.capture());
+            assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), Set.copyOf(seen.getValue()));
+        }
+
+        @Test
+        @DisplayName("Une reprise ne doit pas réécrire les todos avant le point de contrôle")
+        @SuppressWarnings("unchecked")
+        void syncTodoStream_ResumesAfterCheckpoint() throws IOException {
+            when(todoBulkRepository.upsertChangedByExternalId(anyList(), anyString()))
+                    .thenAnswer(invocation -> new UpsertCounts(invocation.<List<?>>getArgument(0).size(), 0));
+            List<Long> advances = new java.util.ArrayList<>();
+
+            SyncResult result = sync(new SyncCheckpoint(3, 3L, (position, lastExternalId) -> advances.add(position)));
+
+            ArgumentCaptor<List<TodoUpsert>> chunks = ArgumentCaptor.forClass(List.class);
+            verify(todoBulkRepository, atLeastOnce()).upsertChangedByExternalId(chunks.capture(), anyString());
+            assertEquals(Set.of(4L, 5L), chunks.getAllValues().stream()
+                    .flatMap(List::stream).map(TodoUpsert::externalId).collect(java.util.stream.Collectors.toSet()));
+            assertEquals(1, result.skipped());
+            assertEquals(6L, advances.get(advances.size() - 1));
+
+            ArgumentCaptor<Collection<Long>> seen = ArgumentCaptor.forClass(Collection.class);
+            verify(todoBulkRepository).deleteExternalNotIn(seen.capture());
+            assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), Set.copyOf(seen.getValue()));
+        }
+
+        @Test
+        @DisplayName("Une reprise dont le point de contrôle ne correspond plus à la source ne doit rien écrire")
+        void syncTodoStream_CheckpointMismatch() {
+            // Given : la position 2 portait le todo 2 lors de l'exécution précédente, c'est désormais le todo 3
+            SyncCheckpoint checkpoint = new SyncCheckpoint(3, 2L, (position, lastExternalId) -> { });
+
+            // When / Then
+            assertThrows(SyncCheckpoint.MismatchException.class, () -> sync(checkpoint));
+            verifyNoInteractions(todoBulkRepository);
+        }
+
+        @Test
+        @DisplayName("Une reprise au-delà de la fin de la source ne doit rien supprimer")
+        void syncTodoStream_CheckpointBeyondSource() {
+            // Given : la source a raccourci depuis l'exécution précédente
+            SyncCheckpoint checkpoint = new SyncCheckpoint(10, 9L, (position, lastExternalId) -> { });
+
+            // When / Then
+            assertThrows(SyncCheckpoint.MismatchException.class, () -> sync(checkpoint));
+            verifyNoInteractions(todoBulkRepository);
+        }
+
+        @Test
+        @DisplayName("Ne doit rien supprimer si une tranche a échoué")
+        void syncTodoStream_NoDeleteAfterFailure() throws IOException {
+            when(todoBulkRepository.upsertChangedByExternalId(anyList(), anyString()))
+                    .thenThrow(new IllegalStateException("Connexion perdue"))
+                    .thenAnswer(invocation -> new UpsertCounts(invocation.<List<?>>getArgument(0).size(), 0));
+
+            SyncResult result = sync();
+
+            assertEquals(2, result.failed());
+            verify(todoBulkRepository, never()).deleteExternalNotIn(anyCollection());
+        }
+
+        @Test
+        @DisplayName("Un point de contrôle non persisté ne doit ni bloquer ni interrompre le sync")
+        void syncTodoStream_CheckpointFailureDoesNotBlockLane() {
+            // Une seule voie chargée de 10 tranches : plus que les 4 permis de lecture
+            StringBuilder source = new StringBuilder("[");
+            for (int id = 1; id <= 20; id++) {
+                source.append(id > 1 ? "," : "")
+                        .append("{\"userId\":1,\"id\":").append(id).append(",\"title\":\"t").append(id).append("\"}");
+            }
+            source.append(']');
+            when(todoBulkRepository.upsertChangedByExternalId(anyList(), anyString()))
+                    .thenAnswer(invocation -> new UpsertCounts(invocation.<List<?>>getArgument(0).size(), 0));
+            List<Long> advances = new java.util.ArrayList<>();
+            SyncCheckpoint checkpoint = new SyncCheckpoint(0, null, (position, lastExternalId) -> {
+                advances.add(position);
+                throw new IllegalStateException("Base indisponible");
+            });
+
+            SyncResult result = assertTimeoutPreemptively(java.time.Duration.ofSeconds(10),
+                    () -> sync(source.toString(), checkpoint));
+
+            assertEquals(20, result.created());
+            verify(todoBulkRepository, times(10)).upsertChangedByExternalId(anyList(), anyString());
+            // Figé après le premier échec : plus aucune écriture du point de contrôle
+            assertEquals(List.of(2L), advances);
+            assertEquals(2L, checkpoint.position());
+        }
+
+        @Test
+        @DisplayName("Une lecture en échec ne doit plus écrire une fois l'erreur propagée")
+        @SuppressWarnings("unchecked")
+        void syncTodoStream_ReaderFailureStopsPendingChunks() throws Exception {
+            // Given : 6 todos d'un même utilisateur (3 tranches) puis une connexion coupée pendant l'écriture
+            // de la première tranche, qui ne se termine qu'une fois la lecture en attente des voies
+            Thread reader = Thread.currentThread();
+            CountDownLatch writing = new CountDownLatch(1);
+            JsonArrayReader<TodoDTO> todos = mock(JsonArrayReader.class);
+            when(todos.next()).thenReturn(todo(1, 1), todo(2, 1), todo(3, 1), todo(4, 1), todo(5, 1), todo(6, 1))
+                    .thenAnswer(invocation -> {
+                        assertTrue(writing.await(5, TimeUnit.SECONDS));
+                        throw new IOException("Connexion interrompue");
+                    });
+            when(todoBulkRepository.upsertChangedByExternalId(anyList(), anyString())).thenAnswer(invocation -> {
+                writing.countDown();
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (reader.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+                return new UpsertCounts(invocation.<List<?>>getArgument(0).size(), 0);
+            });
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            TodoSyncService service = new TodoSyncService(todoBulkRepository, mock(UserRepository.class),
+                    mock(UserBulkRepository.class), transactionManager, syncThrottle, executor,
+                    mock(KafkaMessageService.class), mock(WebSocketNotificationService.class),
+                    mock(TodoSourceClient.class), mock(SyncJobService.class), mock(ClusterSyncLock.class), 2);
+            List<Long> advances = new java.util.concurrent.CopyOnWriteArrayList<>();
+
+            // When
+            assertThrows(IOException.class, () -> service.syncTodoStream(todos, users, processed -> { },
+                    new SyncCheckpoint(0, null, (position, lastExternalId) -> advances.add(position))));
+            List<Long> advancesOnReturn = List.copyOf(advances);
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+            // Then : seule la tranche en cours a été écrite, les deux en attente sont abandonnées
+            verify(todoBulkRepository, times(1)).upsertChangedByExternalId(anyList(), anyString());
+            verify(todoBulkRepository, never()).deleteExternalNotIn(anyCollection());
+            assertEquals(List.of(2L), advancesOnReturn);
+            assertEquals(advancesOnReturn, advances);
+        }
+}
+}
@@ -0,0 +1,78 @@
+package be.cm.todoapplication.service;
+
+import be.cm.todoapplication.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour UserStatusCache
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserStatusCache Tests")
+class UserStatusCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserStatusCache userStatusCache;
+
+    @BeforeEach
+    void setUp() {
+        userStatusCache = new UserStatusCache(userRepository, Duration.ofMinutes(1), 2);
+    }
+
+    @Test
+    @DisplayName("Doit interroger la base une seule fois pendant le TTL")
+    void isEnabled_CachedWithinTtl() {
+        when(userRepository.findEnabledById(1L)).thenReturn(Optional.of(true));
+
+        assertTrue(userStatusCache.isEnabled(1L));
+        assertTrue(userStatusCache.isEnabled(1L));
+
+        verify(userRepository, times(1)).findEnabledById(1L);
+    }
+
+    @Test
+    @DisplayName("Doit refuser un utilisateur inexistant ou désactivé")
+    void isEnabled_UnknownOrDisabled() {
+        when(userRepository.findEnabledById(1L)).thenReturn(Optional.of(false));
+        when(userRepository.findEnabledById(2L)).thenReturn(Optional.empty());
+
+        assertFalse(userStatusCache.isEnabled(1L));
+        assertFalse(userStatusCache.isEnabled(2L));
+    }
+
+    @Test
+    @DisplayName("Doit relire la base après expiration")
+    void isEnabled_ReloadAfterExpiry() {
+        UserStatusCache noTtl = new UserStatusCache(userRepository, Duration.ZERO, 2);
+        when(userRepository.findEnabledById(1L)).thenReturn(Optional.of(true), Optional.of(false));
+
+        assertTrue(noTtl.isEnabled(1L));
+        assertFalse(noTtl.isEnabled(1L));
+        verify(userRepository, times(2)).findEnabledById(1L);
+    }
+
+    @Test
+    @DisplayName("Doit borner le nombre d'entrées")
+    void isEnabled_Bounded() {
+        when(userRepository.findEnabledById(anyLong())).thenReturn(Optional.of(true));
+
+        userStatusCache.isEnabled(1L);
+        userStatusCache.isEnabled(2L);
+        userStatusCache.isEnabled(3L);
+        userStatusCache.isEnabled(1L);
+
+        verify(userRepository, times(2)).findEnabledById(1L);
+    }
+}
@@ -0,0 +1,167 @@
+package be.cm.todoapplication.service.messaging;
+
+import be.cm.todoapplication.config.KafkaConfig;
+import be.cm.todoapplication.dto.messaging.NotificationMessage;
+import be.cm.todoapplication.dto.messaging.PdfProcessingMessage;
+import be.cm.todoapplication.dto.messaging.TodoSyncMessage;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour CompactMessageCodec et le désérialiseur des topics applicatifs
+ */
+@DisplayName("CompactMessageCodec Tests")
+class CompactMessageCodecTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 3, 5, 14, 30, 12, 123_456_789);
+
+    private final CompactMessageSerializer serializer = new CompactMessageSerializer();
+    private final CompactMessageDeserializer deserializer = new CompactMessageDeserializer();
+
+    @Nested
+    @DisplayName("Format binaire")
+    class BinaryTests {
+
+        @Test
+        @DisplayName("Doit relire une notification avec ses données")
+        void shouldRoundTripNotification() {
+            NotificationMessage notification = new NotificationMessage("testuser",
+                    NotificationMessage.NotificationType.SYNC_COMPLETED, "Synchronisation terminée",
+                    "Synchronisé 200 todos", Map.of("batchId", "b-1", "total", 200), TIMESTAMP);
+
+            NotificationMessage decoded = (NotificationMessage) roundTrip(KafkaConfig.NOTIFICATION_TOPIC, notification);
+
+            assertEquals("testuser", decoded.getUserId());
+            assertEquals(NotificationMessage.NotificationType.SYNC_COMPLETED, decoded.getType());
+            assertEquals("Synchronisation terminée", decoded.getTitle());
+            assertEquals("Synchronisé 200 todos", decoded.getMessage());
+            assertEquals(Map.of("batchId", "b-1", "total", 200), decoded.getData());
+            assertEquals(TIMESTAMP, decoded.getTimestamp());
+        }
+
+        @Test
+        @DisplayName("Doit relire une progression PDF, champs optionnels compris")
+        void shouldRoundTripPdfProcessing() {
+            PdfProcessingMessage progress = PdfProcessingMessage.createProgress("task-1", "testuser", "all",
+                    "todos.pdf", "./pdf-storage/todos.pdf", 1500, 5000, 42);
+            PdfProcessingMessage pending = PdfProcessingMessage.createPending("task-2", "testuser", "7",
+                    "todo-7.pdf", null);
+
+            PdfProcessingMessage decodedProgress = (PdfProcessingMessage) roundTrip(KafkaConfig.PDF_PROCESSING_TOPIC, progress);
+            PdfProcessingMessage decodedPending = (PdfProcessingMessage) roundTrip(KafkaConfig.PDF_PROCESSING_TOPIC, pending);
+
+            assertEquals(progress, decodedProgress);
+            assertEquals(1500L, decodedProgress.getProcessedRows());
+            assertEquals(5000L, decodedProgress.getTotalRows());
+            assertEquals(42, decodedProgress.getPageCount());
+            assertEquals("./pdf-storage/todos.pdf", decodedProgress.getFilePath());
+            assertNull(decodedPending.getFilePath());
+            assertNull(decodedPending.getProcessedRows());
+            assertNull(decodedPending.getPageCount());
+        }
+
+        @Test
+        @DisplayName("Doit relire un message de sync avec le détail du delta")
+        void shouldRoundTripTodoSync() {
+            TodoSyncMessage sync = new TodoSyncMessage("admin", TodoSyncMessage.SyncAction.COMPLETE_SYNC, "b-1",
+                    200, 200, TodoSyncMessage.SyncStatus.COMPLETED, null, TIMESTAMP);
+            sync.setCreatedTodos(3);
+            sync.setUpdatedTodos(5);
+            sync.setUnchangedTodos(192);
+            sync.setDeletedTodos(1);
+
+            TodoSyncMessage decoded = (TodoSyncMessage) roundTrip(KafkaConfig.TODO_SYNC_TOPIC, sync);
+
+            assertEquals("admin", decoded.getUserId());
+            assertEquals(TodoSyncMessage.SyncAction.COMPLETE_SYNC, decoded.getAction());
+            assertEquals(TodoSyncMessage.SyncStatus.COMPLETED, decoded.getStatus());
+            assertEquals(200, decoded.getTotalTodos());
+            assertEquals(192, decoded.getUnchangedTodos());
+            assertEquals(1, decoded.getDeletedTodos());
+            assertNull(decoded.getErrorMessage());
+            assertEquals(TIMESTAMP, decoded.getTimestamp());
+        }
+
+        @Test
+        @DisplayName("Doit ignorer les champs ajoutés par une version plus récente")
+        void shouldIgnoreTrailingFieldsOfNewerVersion() {
+            byte[] encoded = CompactMessageCodec.encode(TodoSyncMessage.createStart("admin", "b-1"));
+            byte[] newer = Arrays.copyOf(encoded, encoded.length + 3);
+            newer[1] = CompactMessageCodec.VERSION + 1;
+
+            TodoSyncMessage decoded = (TodoSyncMessage) CompactMessageCodec.decode(newer);
+
+            assertEquals("b-1", decoded.getBatchId());
+            assertEquals(TodoSyncMessage.SyncStatus.STARTED, decoded.getStatus());
+        }
+
+        @Test
+        @DisplayName("Doit rejeter un message tronqué")
+        void shouldRejectTruncatedMessage() {
+            byte[] encoded = CompactMessageCodec.encode(TodoSyncMessage.createStart("admin", "b-1"));
+
+            assertThrows(SerializationException.class,
+                    () -> CompactMessageCodec.decode(Arrays.copyOf(encoded, 8)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Compatibilité JSON")
+    class JsonTests {
+
+        @Test
+        @DisplayName("Doit lire un record écrit par JsonSerializer")
+        void shouldReadJsonSerializerRecord() {
+            RecordHeaders headers = new RecordHeaders();
+            TodoSyncMessage sync = TodoSyncMessage.createStart("admin", "b-1");
+            byte[] json;
+            try (JsonSerializer<Object> jsonSerializer = new JsonSerializer<>()) {
+                json = jsonSerializer.serialize(KafkaConfig.TODO_SYNC_TOPIC, headers, sync);
+            }
+
+            Object decoded = deserializer.deserialize(KafkaConfig.TODO_SYNC_TOPIC, headers, json);
+
+            assertInstanceOf(TodoSyncMessage.class, decoded);
+            assertEquals("b-1", ((TodoSyncMessage) decoded).getBatchId());
+        }
+
+        @Test
+        @DisplayName("Sans entête de type, le type doit venir du topic")
+        void shouldResolveJsonTypeFromTopic() {
+            byte[] json = "{\"taskId\":\"task-1\",\"userId\":\"testuser\",\"status\":\"COMPLETED\"}".getBytes();
+
+            Object decoded = deserializer.deserialize(KafkaConfig.PDF_PROCESSING_TOPIC, new RecordHeaders(), json);
+
+            assertInstanceOf(PdfProcessingMessage.class, decoded);
+            assertEquals(PdfProcessingMessage.ProcessingStatus.COMPLETED, ((PdfProcessingMessage) decoded).getStatus());
+        }
+
+        @Test
+        @DisplayName("Le binaire doit être plus compact que le JSON")
+        void binaryShouldBeSmallerThanJson() {
+            TodoSyncMessage sync = TodoSyncMessage.createStart("admin", "3f1c2a9e-7b4d-4c1e-9a8f-2d6b5e0c1a3b");
+            byte[] json;
+            try (JsonSerializer<Object> jsonSerializer = new JsonSerializer<>()) {
+                json = jsonSerializer.serialize(KafkaConfig.TODO_SYNC_TOPIC, sync);
+            }
+
+            byte[] binary = serializer.serialize(KafkaConfig.TODO_SYNC_TOPIC, sync);
+
+            assertTrue(binary.length * 3 < json.length, binary.length + " octets contre " + json.length);
+        }
+    }
+
+    private Object roundTrip(String topic, Object message) {
+        return deserializer.deserialize(topic, new RecordHeaders(), serializer.serialize(topic, message));
+    }
+}
@@ -1,21 +1,29 @@
 package be.cm.todoapplication.service.messaging;
 
+import be.cm.todoapplication.config.KafkaConfig;
 import be.cm.todoapplication.dto.messaging.NotificationMessage;
 import be.cm.todoapplication.dto.messaging.PdfProcessingMessage;
 import be.cm.todoapplication.dto.messaging.TodoSyncMessage;
 import be.cm.todoapplication.service.WebSocketNotificationService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.support.Acknowledgment;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 /**
@@ -30,6 +38,9 @@ class KafkaMessageListenerTest {
     @Mock
     private WebSocketNotificationService webSocketNotificationService;
 
+    @Mock
+    private KafkaRetryRouter retryRouter;
+
     @Mock
     private Acknowledgment acknowledgment;
 
@@ -83,7 +94,7 @@ class KafkaMessageListenerTest {
             pdfMessage.setStatus(PdfProcessingMessage.ProcessingStatus.PROCESSING);
 
             // When
-            kafkaMessageListener.handlePdfProcessingMessage(pdfMessage, "pdf-processing", 0, acknowledgment);
+            kafkaMessageListener.handlePdfProcessingMessage(pdfMessage, record("pdf-processing", 0, pdfMessage), acknowledgment);
 
             // Then
             verify(webSocketNotificationService).sendPdfProcessingUpdate(
@@ -95,6 +106,26 @@ class KafkaMessageListenerTest {
             verify(acknowledgment).acknowledge();
         }
 
+        @Test
+        @DisplayName("Traitement d'un message PDF avec progression du rendu")
+        void handlePdfProcessingMessage_ProcessingWithProgress() {
+            // Given
+            PdfProcessingMessage progressMessage = PdfProcessingMessage.createProgress(
+                    "task-123", "user123", "todo-456", "test.pdf", "/path/to/test.pdf", 1500, 10000, 42);
+
+            // When
+            kafkaMessageListener.handlePdfProcessingMessage(progressMessage, record("pdf-processing", 0, progressMessage), acknowledgment);
+
+            // Then
+            verify(webSocketNotificationService).sendPdfProcessingUpdate(
+                    "user123",
+                    "task-123",
+                    "PROCESSING",
+                    "PDF generation in progress: 1500/10000 todos, 42 pages"
+            );
+            verify(acknowledgment).acknowledge();
+        }
+
         @Test
         @DisplayName("Traitement d'un message PDF terminé")
         void handlePdfProcessingMessage_Completed_Success() {
@@ -102,7 +133,7 @@ class KafkaMessageListenerTest {
             pdfMessage.setStatus(PdfProcessingMessage.ProcessingStatus.COMPLETED);
 
             // When
-            kafkaMessageListener.handlePdfProcessingMessage(pdfMessage, "pdf-processing", 0, acknowledgment);
+            kafkaMessageListener.handlePdfProcessingMessage(pdfMessage, record("pdf-processing", 0, pdfMessage), acknowledgment);
 
             // Then
             verify(acknowledgment).acknowledge();
@@ -117,7 +148,7 @@ class KafkaMessageListenerTest {
             pdfMessage.setErrorMessage("PDF generation failed");
 
             // When
-            kafkaMessageListener.handlePdfProcessingMessage(pdfMessage, "pdf-processing", 0, acknowledgment);
+            kafkaMessageListener.handlePdfProcessingMessage(pdfMessage, record("pdf-processing", 0, pdfMessage), acknowledgment);
 
             // Then
             verify(acknowledgment).acknowledge();
@@ -133,10 +164,11 @@ class KafkaMessageListenerTest {
             pdfMessage.setStatus(PdfProcessingMessage.ProcessingStatus.PROCESSING);
 
             // When
-            kafkaMessageListener.handlePdfProcessingMessage(pdfMessage, "pdf-processing", 0, acknowledgment);
+            kafkaMessageListener.handlePdfProcessingMessage(pdfMessage, record("pdf-processing", 0, pdfMessage), acknowledgment);
 
-            // Then
-            verify(acknowledgment, never()).acknowledge(); // Ne pas acknowledger en cas d'erreur
+            // Then - Le message part en retry, la partition n'est pas bloquée
+            verify(retryRouter).reject(argThat(record -> record.value() == pdfMessage), any(RuntimeException.class));
+            verify(acknowledgment).acknowledge();
         }
     }
 
@@ -151,7 +183,7 @@ class KafkaMessageListenerTest {
             todoSyncMessage.setStatus(TodoSyncMessage.SyncStatus.STARTED);
 
             // When
-            kafkaMessageListener.handleTodoSyncMessage(todoSyncMessage, "todo-sync", 0, acknowledgment);
+            kafkaMessageListener.handleTodoSyncMessage(todoSyncMessage, record("todo-sync", 0, todoSyncMessage), acknowledgment);
 
             // Then
             verify(acknowledgment).acknowledge();
@@ -165,7 +197,7 @@ class KafkaMessageListenerTest {
             todoSyncMessage.setProcessedTodos(75);
 
             // When
-            kafkaMessageListener.handleTodoSyncMessage(todoSyncMessage, "todo-sync", 0, acknowledgment);
+            kafkaMessageListener.handleTodoSyncMessage(todoSyncMessage, record("todo-sync", 0, todoSyncMessage), acknowledgment);
 
             // Then
             verify(acknowledgment).acknowledge();
@@ -179,7 +211,7 @@ class KafkaMessageListenerTest {
             todoSyncMessage.setProcessedTodos(100);
 
             // When
-            kafkaMessageListener.handleTodoSyncMessage(todoSyncMessage, "todo-sync", 0, acknowledgment);
+            kafkaMessageListener.handleTodoSyncMessage(todoSyncMessage, record("todo-sync", 0, todoSyncMessage), acknowledgment);
 
             // Then
             verify(acknowledgment).acknowledge();
@@ -193,7 +225,7 @@ class KafkaMessageListenerTest {
             todoSyncMessage.setErrorMessage("Sync failed due to network error");
 
             // When
-            kafkaMessageListener.handleTodoSyncMessage(todoSyncMessage, "todo-sync", 0, acknowledgment);
+            kafkaMessageListener.handleTodoSyncMessage(todoSyncMessage, record("todo-sync", 0, todoSyncMessage), acknowledgment);
 
             // Then
             verify(acknowledgment).acknowledge();
@@ -202,15 +234,29 @@ class KafkaMessageListenerTest {
         @Test
         @DisplayName("Gestion d'exception lors du traitement sync")
         void handleTodoSyncMessage_Exception() {
-            // Given - Exception simulée
-            doThrow(new RuntimeException("Processing error")).when(acknowledgment).acknowledge();
+            // Given - Message sans statut
+            TodoSyncMessage broken = new TodoSyncMessage();
 
             // When
-            kafkaMessageListener.handleTodoSyncMessage(todoSyncMessage, "todo-sync", 0, acknowledgment);
+            kafkaMessageListener.handleTodoSyncMessage(broken, record("todo-sync", 0, broken), acknowledgment);
 
-            // Then - L'exception est capturée et loggée
+            // Then - L'exception est capturée et le message part en retry
+            verify(retryRouter).reject(argThat(record -> record.value() == broken), any(NullPointerException.class));
             verify(acknowledgment).acknowledge();
         }
+
+        @Test
+        @DisplayName("Un message qui ne peut pas être republié ne doit pas être acquitté")
+        void handleTodoSyncMessage_RetryPublishFailure() {
+            // Given
+            TodoSyncMessage broken = new TodoSyncMessage();
+            doThrow(new KafkaException("broker down")).when(retryRouter).reject(any(), any());
+
+            // When & Then
+            assertThrows(KafkaException.class, () ->
+                    kafkaMessageListener.handleTodoSyncMessage(broken, record("todo-sync", 0, broken), acknowledgment));
+            verify(acknowledgment, never()).acknowledge();
+        }
     }
 
     @Nested
@@ -229,7 +275,7 @@ class KafkaMessageListenerTest {
             );
 
             // When
-            kafkaMessageListener.handleNotificationMessage(notificationMessage, "notifications", 0, acknowledgment);
+            kafkaMessageListener.handleNotificationMessage(notificationMessage, record("notifications", 0, notificationMessage), acknowledgment);
 
             // Then
             verify(webSocketNotificationService).sendNotificationToUser("user123", notificationMessage);
@@ -248,7 +294,7 @@ class KafkaMessageListenerTest {
             );
 
             // When
-            kafkaMessageListener.handleNotificationMessage(notificationMessage, "notifications", 0, acknowledgment);
+            kafkaMessageListener.handleNotificationMessage(notificationMessage, record("notifications", 0, notificationMessage), acknowledgment);
 
             // Then
             verify(webSocketNotificationService).sendNotificationToUser("user123", notificationMessage);
@@ -268,7 +314,7 @@ class KafkaMessageListenerTest {
             );
 
             // When
-            kafkaMessageListener.handleNotificationMessage(notificationMessage, "notifications", 0, acknowledgment);
+            kafkaMessageListener.handleNotificationMessage(notificationMessage, record("notifications", 0, notificationMessage), acknowledgment);
 
             // Then
             verify(webSocketNotificationService).sendNotificationToUser("user123", notificationMessage);
@@ -283,10 +329,11 @@ class KafkaMessageListenerTest {
                     .when(webSocketNotificationService).sendNotificationToUser(anyString(), any(NotificationMessage.class));
 
             // When
-            kafkaMessageListener.handleNotificationMessage(notificationMessage, "notifications", 0, acknowledgment);
+            kafkaMessageListener.handleNotificationMessage(notificationMessage, record("notifications", 0, notificationMessage), acknowledgment);
 
             // Then
-            verify(acknowledgment, never()).acknowledge(); // Ne pas acknowledger en cas d'erreur
+            verify(retryRouter).reject(argThat(record -> record.value() == notificationMessage), any(RuntimeException.class));
+            verify(acknowledgment).acknowledge();
         }
 
         @Test
@@ -313,7 +360,7 @@ class KafkaMessageListenerTest {
                 );
 
                 // When
-                kafkaMessageListener.handleNotificationMessage(message, "notifications", 0, acknowledgment);
+                kafkaMessageListener.handleNotificationMessage(message, record("notifications", 0, message), acknowledgment);
 
                 // Then
                 verify(webSocketNotificationService).sendNotificationToUser("user123", message);
@@ -341,8 +388,8 @@ class KafkaMessageListenerTest {
             );
 
             // When
-            kafkaMessageListener.handlePdfProcessingMessage(msg1, "pdf-processing", 0, acknowledgment);
-            kafkaMessageListener.handlePdfProcessingMessage(msg2, "pdf-processing", 1, acknowledgment);
+            kafkaMessageListener.handlePdfProcessingMessage(msg1, record("pdf-processing", 0, msg1), acknowledgment);
+            kafkaMessageListener.handlePdfProcessingMessage(msg2, record("pdf-processing", 1, msg2), acknowledgment);
 
             // Then
             verify(webSocketNotificationService).sendPdfProcessingUpdate("user1", "task-1", "PROCESSING", "PDF generation in progress...");
@@ -358,7 +405,7 @@ class KafkaMessageListenerTest {
             );
 
             // When & Then - Ne doit pas lever d'exception
-            kafkaMessageListener.handlePdfProcessingMessage(malformedMessage, "pdf-processing", 0, acknowledgment);
+            kafkaMessageListener.handlePdfProcessingMessage(malformedMessage, record("pdf-processing", 0, malformedMessage), acknowledgment);
 
             verify(acknowledgment).acknowledge();
         }
@@ -373,7 +420,7 @@ class KafkaMessageListenerTest {
 
             // When
             long startTime = System.currentTimeMillis();
-            kafkaMessageListener.handlePdfProcessingMessage(pdfMessage, "pdf-processing", 0, acknowledgment);
+            kafkaMessageListener.handlePdfProcessingMessage(pdfMessage, record("pdf-processing", 0, pdfMessage), acknowledgment);
             long endTime = System.currentTimeMillis();
 
             // Then
@@ -382,4 +429,222 @@ class KafkaMessageListenerTest {
             org.assertj.core.api.Assertions.assertThat(endTime - startTime).isLessThan(1000); // Moins d'1 seconde
         }
     }
+
+    @Nested
+    @DisplayName("Tests des listeners par lot")
+    class BatchTests {
+
+        @Test
+        @DisplayName("Seule la dernière progression de chaque tâche doit être poussée")
+        void handlePdfProcessingBatch_CoalescesProgress() {
+            // Given
+            List<ConsumerRecord<String, Object>> records = records(KafkaConfig.PDF_PROCESSING_TOPIC,
+                    PdfProcessingMessage.createProgress("task-1", "user1", "all", "a.pdf", "/a", 500, 2000, 10),
+                    PdfProcessingMessage.createProgress("task-2", "user2", "all", "b.pdf", "/b", 100, 100, 2),
+                    PdfProcessingMessage.createProgress("task-1", "user1", "all", "a.pdf", "/a", 1500, 2000, 30));
+
+            // When
+            kafkaMessageListener.handlePdfProcessingBatch(records, acknowledgment);
+
+            // Then
+            verify(webSocketNotificationService).sendPdfProcessingUpdate("user1", "task-1", "PROCESSING",
+                    "PDF generation in progress: 1500/2000 todos, 30 pages");
+            verify(webSocketNotificationService).sendPdfProcessingUpdate("user2", "task-2", "PROCESSING",
+                    "PDF generation in progress: 100/100 todos, 2 pages");
+            verifyNoMoreInteractions(webSocketNotificationService);
+            verify(acknowledgment).acknowledge();
+        }
+
+        @Test
+        @DisplayName("Une tâche terminée dans le lot ne doit plus pousser de progression")
+        void handlePdfProcessingBatch_DropsProgressOfFinishedTask() {
+            // Given
+            PdfProcessingMessage completed = new PdfProcessingMessage("task-1", "user1", "all", "a.pdf", "/a",
+                    PdfProcessingMessage.ProcessingStatus.COMPLETED, null, LocalDateTime.now());
+            List<ConsumerRecord<String, Object>> records = records(KafkaConfig.PDF_PROCESSING_TOPIC,
+                    PdfProcessingMessage.createProgress("task-1", "user1", "all", "a.pdf", "/a", 500, 2000, 10),
+                    completed);
+
+            // When
+            kafkaMessageListener.handlePdfProcessingBatch(records, acknowledgment);
+
+            // Then
+            verifyNoInteractions(webSocketNotificationService);
+            verify(acknowledgment).acknowledge();
+        }
+
+        @Test
+        @DisplayName("Les notifications du lot doivent être livrées une fois chacune, acquittées en une fois")
+        void handleNotificationBatch_DeliversEachOnce() {
+            // Given
+            NotificationMessage ready = NotificationMessage.create("user1",
+                    NotificationMessage.NotificationType.PDF_PROCESSING_COMPLETED, "PDF Ready", "a.pdf");
+            NotificationMessage duplicate = NotificationMessage.create("user1",
+                    NotificationMessage.NotificationType.PDF_PROCESSING_COMPLETED, "PDF Ready", "a.pdf");
+            NotificationMessage other = NotificationMessage.create("user2",
+                    NotificationMessage.NotificationType.SYNC_COMPLETED, "Sync Complete", "200 todos");
+            List<ConsumerRecord<String, Object>> records = new ArrayList<>(
+                    records(KafkaConfig.NOTIFICATION_TOPIC, ready, duplicate, other));
+            records.add(new ConsumerRecord<>(KafkaConfig.NOTIFICATION_TOPIC, 0, 99, "user3", null));
+
+            // When
+            kafkaMessageListener.handleNotificationBatch(records, acknowledgment);
+
+            // Then
+            verify(webSocketNotificationService, times(1)).sendNotificationToUser(eq("user1"), any(NotificationMessage.class));
+            verify(webSocketNotificationService).sendNotificationToUser("user2", other);
+            verify(retryRouter).rejectUnreadable(records.get(3), null);
+            verify(acknowledgment).acknowledge();
+        }
+
+        @Test
+        @DisplayName("Un échec sur un message ne doit pas bloquer le reste du lot")
+        void handleTodoSyncBatch_ContinuesAfterFailure() {
+            // Given
+            TodoSyncMessage broken = new TodoSyncMessage();
+            List<ConsumerRecord<String, Object>> records = records(KafkaConfig.TODO_SYNC_TOPIC,
+                    broken, todoSyncMessage, TodoSyncMessage.createStart("user123", "batch-790"));
+
+            // When
+            kafkaMessageListener.handleTodoSyncBatch(records, acknowledgment);
+
+            // Then
+            verify(retryRouter).reject(eq(records.get(0)), any(NullPointerException.class));
+            verifyNoMoreInteractions(retryRouter);
+            verify(acknowledgment).acknowledge();
+        }
+
+        @Test
+        @DisplayName("Une progression non poussée doit partir en retry, les autres sont livrées")
+        void handlePdfProcessingBatch_RetriesFailedPush() {
+            // Given
+            List<ConsumerRecord<String, Object>> records = records(KafkaConfig.PDF_PROCESSING_TOPIC,
+                    PdfProcessingMessage.createProgress("task-1", "user1", "all", "a.pdf", "/a", 500, 2000, 10),
+                    PdfProcessingMessage.createProgress("task-2", "user2", "all", "b.pdf", "/b", 100, 100, 2));
+            doThrow(new RuntimeException("WebSocket error")).when(webSocketNotificationService)
+                    .sendPdfProcessingUpdate(eq("user1"), anyString(), anyString(), anyString());
+
+            // When
+            kafkaMessageListener.handlePdfProcessingBatch(records, acknowledgment);
+
+            // Then
+            verify(retryRouter).reject(eq(records.get(0)), any(RuntimeException.class));
+            verify(webSocketNotificationService).sendPdfProcessingUpdate(eq("user2"), eq("task-2"), anyString(), anyString());
+            verify(acknowledgment).acknowledge();
+        }
+
+        @Test
+        @DisplayName("Les échecs du lot doivent être republiés dans l'ordre des offsets, après traitement du lot")
+        void handleNotificationBatch_RoutesAfterProcessing() {
+            // Given
+            NotificationMessage first = NotificationMessage.create("user1",
+                    NotificationMessage.NotificationType.TODO_CREATED, "Todo 1", "créé");
+            NotificationMessage second = NotificationMessage.create("user2",
+                    NotificationMessage.NotificationType.TODO_CREATED, "Todo 2", "créé");
+            List<ConsumerRecord<String, Object>> records = new ArrayList<>(
+                    records(KafkaConfig.NOTIFICATION_TOPIC, first, second));
+            records.add(0, new ConsumerRecord<>(KafkaConfig.NOTIFICATION_TOPIC, 0, 5, "user3", null));
+            doThrow(new RuntimeException("WebSocket error")).when(webSocketNotificationService)
+                    .sendNotificationToUser(eq("user2"), any(NotificationMessage.class));
+
+            // When
+            kafkaMessageListener.handleNotificationBatch(records, acknowledgment);
+
+            // Then
+            InOrder inOrder = inOrder(webSocketNotificationService, retryRouter, acknowledgment);
+            inOrder.verify(webSocketNotificationService).sendNotificationToUser("user2", second);
+            inOrder.verify(retryRouter).rejectUnreadable(records.get(0), null);
+            inOrder.verify(retryRouter).reject(eq(records.get(2)), any(RuntimeException.class));
+            inOrder.verify(acknowledgment).acknowledge();
+        }
+
+        @Test
+        @DisplayName("Un échec de republication doit relivrer le lot à partir de ce record seulement")
+        void handleTodoSyncBatch_RoutingFailure() {
+            // Given
+            TodoSyncMessage broken = new TodoSyncMessage();
+            TodoSyncMessage alsoBroken = new TodoSyncMessage();
+            List<ConsumerRecord<String, Object>> records = records(KafkaConfig.TODO_SYNC_TOPIC,
+                    broken, TodoSyncMessage.createStart("user123", "batch-790"), alsoBroken, todoSyncMessage);
+            doNothing().doThrow(new KafkaException("broker down")).when(retryRouter).reject(any(), any());
+
+            // When
+            kafkaMessageListener.handleTodoSyncBatch(records, acknowledgment);
+
+            // Then
+            verify(retryRouter).reject(eq(records.get(0)), any(NullPointerException.class));
+            verify(retryRouter).reject(eq(records.get(2)), any(NullPointerException.class));
+            verify(acknowledgment).nack(2, KafkaMessageListener.REDELIVERY_DELAY);
+            verify(acknowledgment, never()).acknowledge();
+        }
+
+        private List<ConsumerRecord<String, Object>> records(String topic, Object... values) {
+            List<ConsumerRecord<String, Object>> records = new ArrayList<>();
+            for (int i = 0; i < values.length; i++) {
+                records.add(new ConsumerRecord<>(topic, 0, i, "key-" + i, values[i]));
+            }
+            return records;
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests des listeners de retry")
+    class RetryTests {
+
+        @Test
+        @DisplayName("Un record de retry encore en attente doit être remis sans être traité")
+        void handleRetry_NotDueYet() {
+            // Given
+            ConsumerRecord<String, Object> retry = record(KafkaConfig.retryTopic(KafkaConfig.NOTIFICATION_TOPIC, 1),
+                    0, notificationMessage);
+            when(retryRouter.remainingDelay(retry)).thenReturn(Duration.ofSeconds(3));
+
+            // When
+            kafkaMessageListener.handleRetryStage1(retry, acknowledgment);
+
+            // Then
+            verify(acknowledgment).nack(Duration.ofSeconds(3));
+            verify(acknowledgment, never()).acknowledge();
+            verifyNoInteractions(webSocketNotificationService);
+        }
+
+        @Test
+        @DisplayName("Un record de retry échu doit être retraité et acquitté")
+        void handleRetry_Due() {
+            // Given
+            ConsumerRecord<String, Object> retry = record(KafkaConfig.retryTopic(KafkaConfig.NOTIFICATION_TOPIC, 0),
+                    0, notificationMessage);
+            when(retryRouter.remainingDelay(retry)).thenReturn(Duration.ZERO);
+
+            // When
+            kafkaMessageListener.handleRetryStage0(retry, acknowledgment);
+
+            // Then
+            verify(webSocketNotificationService).sendNotificationToUser("user123", notificationMessage);
+            verify(acknowledgment).acknowledge();
+            verify(retryRouter, never()).reject(any(), any());
+        }
+
+        @Test
+        @DisplayName("Un nouvel échec doit passer le record à l'étape suivante")
+        void handleRetry_FailsAgain() {
+            // Given
+            ConsumerRecord<String, Object> retry = record(KafkaConfig.retryTopic(KafkaConfig.PDF_PROCESSING_TOPIC, 2),
+                    0, pdfMessage);
+            when(retryRouter.remainingDelay(retry)).thenReturn(Duration.ZERO);
+            doThrow(new RuntimeException("WebSocket error"))
+                    .when(webSocketNotificationService).sendPdfProcessingUpdate(anyString(), anyString(), anyString(), anyString());
+
+            // When
+            kafkaMessageListener.handleRetryStage2(retry, acknowledgment);
+
+            // Then
+            verify(retryRouter).reject(eq(retry), any(RuntimeException.class));
+            verify(acknowledgment).acknowledge();
+        }
+    }
+
+    private static ConsumerRecord<String, Object> record(String topic, int partition, Object value) {
+        return new ConsumerRecord<>(topic, partition, 0, "key", value);
+    }
 }
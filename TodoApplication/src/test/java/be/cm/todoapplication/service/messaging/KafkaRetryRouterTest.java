@@ -0,0 +1,199 @@
+package be.cm.todoapplication.service.messaging;
+
+import be.cm.todoapplication.config.KafkaConfig;
+import be.cm.todoapplication.dto.messaging.NotificationMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour KafkaRetryRouter
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("KafkaRetryRouter Tests")
+class KafkaRetryRouterTest {
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private KafkaTemplate<String, byte[]> deadLetterTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final NotificationMessage notification = NotificationMessage.create("user1",
+            NotificationMessage.NotificationType.PDF_PROCESSING_COMPLETED, "PDF Ready", "a.pdf");
+
+    private KafkaRetryRouter router;
+
+    @BeforeEach
+    void setUp() {
+        router = new KafkaRetryRouter(kafkaTemplate, deadLetterTemplate, meterRegistry, Duration.ofSeconds(1), 5, now::get);
+    }
+
+    @Test
+    @DisplayName("Un premier échec doit partir sur la première étape de retry avec l'origine du record")
+    void reject_FromMainTopic() {
+        // Given
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        router.reject(new ConsumerRecord<>(KafkaConfig.NOTIFICATION_TOPIC, 2, 42, "user1", notification),
+                new IllegalStateException("WebSocket down"));
+
+        // Then
+        ProducerRecord<String, Object> sent = sentRecord();
+        assertEquals("notifications-retry-0", sent.topic());
+        assertEquals("user1", sent.key());
+        assertSame(notification, sent.value());
+        assertEquals(now.get(), sent.timestamp());
+        assertEquals(KafkaConfig.NOTIFICATION_TOPIC, header(sent, KafkaHeaders.DLT_ORIGINAL_TOPIC));
+        assertEquals(42, ByteBuffer.wrap(sent.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_OFFSET).value()).getLong());
+        assertEquals("WebSocket down", header(sent, KafkaHeaders.DLT_EXCEPTION_MESSAGE));
+        assertEquals(1.0, meterRegistry.get("kafka.listener.retries")
+                .tag("topic", KafkaConfig.NOTIFICATION_TOPIC).tag("attempt", "1").counter().count());
+    }
+
+    @Test
+    @DisplayName("Un échec à la dernière étape doit partir sur le dead letter topic")
+    void reject_FromLastStage() {
+        // Given
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        ConsumerRecord<String, Object> retry = new ConsumerRecord<>(
+                KafkaConfig.retryTopic(KafkaConfig.NOTIFICATION_TOPIC, KafkaConfig.RETRY_ATTEMPTS - 1), 0, 7, "user1", notification);
+        retry.headers().add(KafkaHeaders.DLT_ORIGINAL_TOPIC, KafkaConfig.NOTIFICATION_TOPIC.getBytes(StandardCharsets.UTF_8));
+
+        // When
+        router.reject(retry, new IllegalStateException("still down"));
+
+        // Then
+        ProducerRecord<String, Object> sent = sentRecord();
+        assertEquals("notifications-dlt", sent.topic());
+        assertEquals(KafkaConfig.NOTIFICATION_TOPIC, header(sent, KafkaHeaders.DLT_ORIGINAL_TOPIC));
+        assertEquals(1.0, meterRegistry.get("kafka.listener.dead.letters")
+                .tag("topic", KafkaConfig.NOTIFICATION_TOPIC).counter().count());
+    }
+
+    @Test
+    @DisplayName("Un échec de republication doit remonter pour que le record ne soit pas acquitté")
+    void reject_SendFailure() {
+        // Given
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        // When & Then
+        assertThrows(KafkaException.class, () -> router.reject(
+                new ConsumerRecord<>(KafkaConfig.TODO_SYNC_TOPIC, 0, 0, "user1", notification), new RuntimeException()));
+        assertTrue(meterRegistry.find("kafka.listener.retries").counters().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Un record illisible doit partir sur le dead letter topic avec ses octets d'origine")
+    void rejectUnreadable_PublishesRawValue() {
+        // Given
+        when(deadLetterTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        byte[] raw = {0x7f, 0x01, 0x02};
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>(KafkaConfig.NOTIFICATION_TOPIC, 1, 9, "user1", null);
+        SerializationUtils.deserializationException(record.headers(), raw,
+                new IllegalArgumentException("Type de message inconnu"), false);
+
+        // When
+        router.rejectUnreadable(record, null);
+
+        // Then
+        ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(deadLetterTemplate).send(captor.capture());
+        ProducerRecord<String, byte[]> sent = captor.getValue();
+        assertEquals("notifications-dlt", sent.topic());
+        assertEquals("user1", sent.key());
+        assertArrayEquals(raw, sent.value());
+        assertEquals(KafkaConfig.NOTIFICATION_TOPIC, header(sent, KafkaHeaders.DLT_ORIGINAL_TOPIC));
+        assertEquals(9, ByteBuffer.wrap(sent.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_OFFSET).value()).getLong());
+        assertEquals(DeserializationException.class.getName(), header(sent, KafkaHeaders.DLT_EXCEPTION_FQCN));
+        assertNull(sent.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER));
+        assertEquals(1.0, meterRegistry.get("kafka.listener.dead.letters")
+                .tag("topic", KafkaConfig.NOTIFICATION_TOPIC).counter().count());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    @DisplayName("Un record d'un type inattendu doit partir tel quel sur le dead letter topic")
+    void rejectUnreadable_UnexpectedType() {
+        // Given
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        router.rejectUnreadable(new ConsumerRecord<>(KafkaConfig.retryTopic(KafkaConfig.TODO_SYNC_TOPIC, 1), 0, 3,
+                "user1", notification), new ClassCastException("NotificationMessage"));
+
+        // Then
+        ProducerRecord<String, Object> sent = sentRecord();
+        assertEquals("todo-sync-dlt", sent.topic());
+        assertSame(notification, sent.value());
+        assertEquals(ClassCastException.class.getName(), header(sent, KafkaHeaders.DLT_EXCEPTION_FQCN));
+        verifyNoInteractions(deadLetterTemplate);
+    }
+
+    @Test
+    @DisplayName("Le délai de chaque étape doit croître exponentiellement depuis la republication")
+    void remainingDelay_GrowsPerStage() {
+        long published = now.get();
+        now.addAndGet(400);
+
+        assertEquals(Duration.ofMillis(600), router.remainingDelay(retryRecord(0, published)));
+        assertEquals(Duration.ofMillis(4600), router.remainingDelay(retryRecord(1, published)));
+        assertEquals(Duration.ofMillis(24600), router.remainingDelay(retryRecord(2, published)));
+
+        now.addAndGet(30_000);
+        assertEquals(Duration.ZERO, router.remainingDelay(retryRecord(2, published)));
+    }
+
+    @Test
+    @DisplayName("Un record d'un topic applicatif n'a pas de délai")
+    void remainingDelay_MainTopic() {
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>(KafkaConfig.NOTIFICATION_TOPIC, 0, 0, "user1", notification);
+
+        assertEquals(Duration.ZERO, router.remainingDelay(record));
+    }
+
+    private ConsumerRecord<String, Object> retryRecord(int stage, long timestamp) {
+        return new ConsumerRecord<>(KafkaConfig.retryTopic(KafkaConfig.PDF_PROCESSING_TOPIC, stage), 0, 0, timestamp,
+                TimestampType.CREATE_TIME, 0, 0, "task-1", notification, new RecordHeaders(), Optional.empty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProducerRecord<String, Object> sentRecord() {
+        ArgumentCaptor<ProducerRecord<String, Object>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        return captor.getValue();
+    }
+
+    private static String header(ProducerRecord<String, ?> record, String name) {
+        return new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
+}
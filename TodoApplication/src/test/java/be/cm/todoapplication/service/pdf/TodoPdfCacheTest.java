@@ -0,0 +1,152 @@
+package be.cm.todoapplication.service.pdf;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour TodoPdfCache
+ */
+@DisplayName("TodoPdfCache Tests")
+class TodoPdfCacheTest {
+
+    @TempDir
+    Path storage;
+
+    private TodoPdfCache cache(long memoryBytes, long diskBytes) {
+        return new TodoPdfCache(memoryBytes, diskBytes, storage.toString());
+    }
+
+    private static TodoPdfCache.Key key(long id, long version) {
+        return new TodoPdfCache.Key(id, version, TodoPdfCache.TEMPLATE_DETAIL);
+    }
+
+    @Nested
+    @DisplayName("Lecture et génération")
+    class GetTests {
+
+        @Test
+        @DisplayName("Doit générer une seule fois pour une même version")
+        void shouldGenerateOncePerVersion() throws Exception {
+            TodoPdfCache cache = cache(1024, 1024);
+            AtomicInteger generations = new AtomicInteger();
+
+            byte[] first = cache.get(key(1, 0), () -> new byte[]{(byte) generations.incrementAndGet()});
+            byte[] second = cache.get(key(1, 0), () -> new byte[]{(byte) generations.incrementAndGet()});
+
+            assertArrayEquals(first, second);
+            assertEquals(1, generations.get());
+        }
+
+        @Test
+        @DisplayName("Doit régénérer quand la version change")
+        void shouldRegenerateOnNewVersion() throws Exception {
+            TodoPdfCache cache = cache(1024, 1024);
+            AtomicInteger generations = new AtomicInteger();
+
+            cache.get(key(1, 0), () -> new byte[]{(byte) generations.incrementAndGet()});
+            byte[] updated = cache.get(key(1, 1), () -> new byte[]{(byte) generations.incrementAndGet()});
+
+            assertEquals(2, generations.get());
+            assertArrayEquals(new byte[]{2}, updated);
+        }
+
+        @Test
+        @DisplayName("Les requêtes simultanées doivent partager la même génération")
+        void shouldDeduplicateConcurrentMisses() throws Exception {
+            TodoPdfCache cache = cache(1024, 1024);
+            AtomicInteger generations = new AtomicInteger();
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                Future<byte[]> first = executor.submit(() -> cache.get(key(1, 0), () -> {
+                    generations.incrementAndGet();
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new byte[]{1};
+                }));
+                started.await();
+                Future<byte[]> second = executor.submit(() -> cache.get(key(1, 0), () -> {
+                    generations.incrementAndGet();
+                    return new byte[]{2};
+                }));
+                Thread.sleep(50);
+                release.countDown();
+
+                assertArrayEquals(new byte[]{1}, first.get(5, TimeUnit.SECONDS));
+                assertArrayEquals(new byte[]{1}, second.get(5, TimeUnit.SECONDS));
+                assertEquals(1, generations.get());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Éviction")
+    class EvictionTests {
+
+        @Test
+        @DisplayName("Doit déborder sur disque puis relire sans régénérer")
+        void shouldSpillToDiskAndReload() throws Exception {
+            TodoPdfCache cache = cache(10, 1024);
+            AtomicInteger generations = new AtomicInteger();
+
+            cache.get(key(1, 0), () -> { generations.incrementAndGet(); return new byte[8]; });
+            cache.get(key(2, 0), () -> { generations.incrementAndGet(); return new byte[8]; });
+
+            assertTrue(Files.exists(storage.resolve("cache").resolve("todo-1-v0-detail.pdf")));
+
+            cache.get(key(1, 0), () -> { generations.incrementAndGet(); return new byte[8]; });
+            assertEquals(2, generations.get());
+        }
+
+        @Test
+        @DisplayName("Une entrée remplacée ne doit plus compter dans la taille en mémoire")
+        void shouldAccountForReplacedEntry() throws Exception {
+            TodoPdfCache cache = cache(10, 1024);
+
+            cache.putInMemory(key(1, 0), new byte[8]);
+            cache.putInMemory(key(1, 0), new byte[2]);
+            cache.get(key(2, 0), () -> new byte[8]);
+
+            // 2 + 8 octets tiennent en mémoire : rien ne déborde sur disque
+            assertFalse(Files.exists(storage.resolve("cache").resolve("todo-1-v0-detail.pdf")));
+        }
+
+        @Test
+        @DisplayName("Doit borner la taille du cache disque")
+        void shouldBoundDiskSize() throws Exception {
+            TodoPdfCache cache = cache(0, 20);
+
+            for (long id = 1; id <= 5; id++) {
+                cache.get(key(id, 0), () -> new byte[8]);
+            }
+
+            long diskBytes;
+            try (var files = Files.list(storage.resolve("cache"))) {
+                diskBytes = files.mapToLong(file -> file.toFile().length()).sum();
+            }
+            assertTrue(diskBytes <= 20, "cache disque: " + diskBytes + " octets");
+        }
+    }
+
+    @Test
+    @DisplayName("L'ETag doit contenir id, version et gabarit")
+    void shouldBuildEtag() {
+        assertEquals("\"todo-7-v3-detail\"", key(7, 3).etag());
+    }
+}
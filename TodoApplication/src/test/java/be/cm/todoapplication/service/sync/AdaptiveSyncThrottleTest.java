@@ -0,0 +1,80 @@
+package be.cm.todoapplication.service.sync;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour AdaptiveSyncThrottle
+ */
+@DisplayName("AdaptiveSyncThrottle Tests")
+class AdaptiveSyncThrottleTest {
+
+    private static final long FAST = Duration.ofMillis(50).toNanos();
+    private static final long SLOW = Duration.ofMillis(500).toNanos();
+
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    private AdaptiveSyncThrottle throttle(int initial) {
+        return new AdaptiveSyncThrottle(initial, 50, 1000, Duration.ofMillis(250), waiters::get);
+    }
+
+    @Test
+    @DisplayName("Doit augmenter la taille tant que les tranches sont rapides")
+    void onChunkCommitted_IncreaseWhenFast() {
+        AdaptiveSyncThrottle throttle = throttle(500);
+
+        throttle.onChunkCommitted(500, FAST);
+
+        assertEquals(550, throttle.nextChunkSize());
+    }
+
+    @Test
+    @DisplayName("Doit diviser la taille par deux quand une tranche est lente")
+    void onChunkCommitted_HalveWhenSlow() {
+        AdaptiveSyncThrottle throttle = throttle(500);
+
+        throttle.onChunkCommitted(500, SLOW);
+
+        assertEquals(250, throttle.nextChunkSize());
+    }
+
+    @Test
+    @DisplayName("Doit diviser la taille par deux quand des threads attendent une connexion")
+    void onChunkCommitted_HalveWhenPoolSaturated() {
+        AdaptiveSyncThrottle throttle = throttle(500);
+        waiters.set(2);
+
+        throttle.onChunkCommitted(500, FAST);
+
+        assertEquals(250, throttle.nextChunkSize());
+    }
+
+    @Test
+    @DisplayName("Doit rester dans les bornes")
+    void onChunkCommitted_Bounded() {
+        AdaptiveSyncThrottle throttle = throttle(1000);
+        throttle.onChunkCommitted(1000, FAST);
+        assertEquals(1000, throttle.nextChunkSize());
+
+        for (int i = 0; i < 10; i++) {
+            throttle.onChunkCommitted(throttle.nextChunkSize(), SLOW);
+        }
+        assertEquals(50, throttle.nextChunkSize());
+    }
+
+    @Test
+    @DisplayName("Une dernière tranche incomplète ne doit pas augmenter la taille")
+    void onChunkCommitted_PartialChunk() {
+        AdaptiveSyncThrottle throttle = throttle(500);
+
+        throttle.onChunkCommitted(120, FAST);
+
+        assertEquals(500, throttle.nextChunkSize());
+        assertEquals(120 * 1_000_000_000d / FAST, throttle.currentRowsPerSecond(), 0.001);
+    }
+}
@@ -0,0 +1,53 @@
+package be.cm.todoapplication.service.sync;
+
+import be.cm.todoapplication.dto.TodoDTO;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour JsonArrayReader
+ */
+@DisplayName("JsonArrayReader Tests")
+class JsonArrayReaderTest {
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static InputStream json(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Doit lire les éléments un par un puis retourner null")
+    void next_ReadsElements() throws IOException {
+        String content = "[{\"userId\":1,\"id\":1,\"title\":\"a\",\"completed\":false,\"extra\":[1,2]}," +
+                "{\"userId\":2,\"id\":2,\"title\":\"b\",\"completed\":true}]";
+
+        try (JsonArrayReader<TodoDTO> reader = new JsonArrayReader<>(mapper, json(content), TodoDTO.class)) {
+            TodoDTO first = reader.next();
+            TodoDTO second = reader.next();
+
+            assertEquals("a", first.getTitle());
+            assertEquals(1L, first.getUserId());
+            assertTrue(second.getCompleted());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("Doit refuser un document qui n'est pas un tableau")
+    void constructor_RejectsNonArray() {
+        assertThrows(JsonParseException.class,
+                () -> new JsonArrayReader<>(mapper, json("{\"id\":1}"), TodoDTO.class));
+    }
+}
@@ -0,0 +1,74 @@
+package be.cm.todoapplication.service.sync;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour SyncCheckpoint
+ */
+@DisplayName("SyncCheckpoint Tests")
+class SyncCheckpointTest {
+
+    private final List<String> advances = new ArrayList<>();
+
+    private SyncCheckpoint checkpoint(long start) {
+        return new SyncCheckpoint(start, null, (position, lastExternalId) -> advances.add(position + ":" + lastExternalId));
+    }
+
+    @Test
+    @DisplayName("Doit n'avancer que sur une suite de positions sans trou")
+    void committed_AdvancesOnContiguousPrefix() {
+        SyncCheckpoint checkpoint = checkpoint(0);
+
+        checkpoint.committed(List.of(2L, 3L), List.of(102L, 103L));
+        assertEquals(0, checkpoint.position());
+        assertTrue(advances.isEmpty());
+
+        checkpoint.committed(List.of(0L, 1L), List.of(100L, 101L));
+        assertEquals(4, checkpoint.position());
+        assertEquals(List.of("4:103"), advances);
+    }
+
+    @Test
+    @DisplayName("Ne doit plus avancer après une tranche en échec")
+    void failed_FreezesCheckpoint() {
+        SyncCheckpoint checkpoint = checkpoint(0);
+
+        checkpoint.committed(List.of(0L), List.of(100L));
+        checkpoint.failed();
+        checkpoint.committed(List.of(1L, 2L), List.of(101L, 102L));
+
+        assertEquals(1, checkpoint.position());
+        assertEquals(List.of("1:100"), advances);
+    }
+
+    @Test
+    @DisplayName("Doit reprendre à la position enregistrée")
+    void constructor_ResumesFromPosition() {
+        SyncCheckpoint checkpoint = checkpoint(10);
+
+        checkpoint.committed(List.of(10L), List.of(110L));
+
+        assertEquals(11, checkpoint.position());
+        assertEquals(List.of("11:110"), advances);
+    }
+
+    @Test
+    @DisplayName("Doit repartir du début du flux après une source qui ne correspond plus")
+    void restart_StartsOverFromZero() {
+        SyncCheckpoint checkpoint = new SyncCheckpoint(10, 109L,
+                (position, lastExternalId) -> advances.add(position + ":" + lastExternalId));
+
+        checkpoint.restart();
+        checkpoint.committed(List.of(0L, 1L), List.of(200L, 201L));
+
+        assertEquals(2, checkpoint.position());
+        assertEquals(201L, checkpoint.lastExternalId());
+        assertEquals(List.of("2:201"), advances);
+    }
+}
@@ -0,0 +1,57 @@
+package be.cm.todoapplication.service.sync;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour SyncProgressAggregator
+ */
+@DisplayName("SyncProgressAggregator Tests")
+class SyncProgressAggregatorTest {
+
+    @Test
+    @DisplayName("Doit additionner les compteurs cumulés des partitions")
+    void forPartition_CombinesProgress() {
+        List<Integer> reported = new ArrayList<>();
+        SyncProgressAggregator aggregator = new SyncProgressAggregator(2, reported::add);
+
+        aggregator.forPartition(0).accept(100);
+        aggregator.forPartition(1).accept(50);
+        aggregator.forPartition(0).accept(250);
+
+        assertEquals(List.of(100, 150, 300), reported);
+        assertEquals(300, aggregator.synced());
+    }
+
+    @Test
+    @DisplayName("Le total doit être exact avec des partitions concurrentes")
+    void forPartition_Concurrent() {
+        SyncProgressAggregator aggregator = new SyncProgressAggregator(4, synced -> { });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<Void>> partitions = new ArrayList<>();
+            for (int partition = 0; partition < 4; partition++) {
+                IntConsumer progress = aggregator.forPartition(partition);
+                partitions.add(CompletableFuture.runAsync(() -> {
+                    for (int synced = 1; synced <= 1000; synced++) {
+                        progress.accept(synced);
+                    }
+                }, executor));
+            }
+            partitions.forEach(CompletableFuture::join);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(4000, aggregator.synced());
+    }
+}
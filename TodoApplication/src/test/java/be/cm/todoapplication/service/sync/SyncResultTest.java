@@ -0,0 +1,26 @@
+package be.cm.todoapplication.service.sync;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour SyncResult
+ */
+@DisplayName("SyncResult Tests")
+class SyncResultTest {
+
+    @Test
+    @DisplayName("Doit additionner les bilans de tranches")
+    void plus_SumsCounts() {
+        SyncResult result = new SyncResult(2, 1, 5, 1, 0, 0)
+                .plus(SyncResult.failed(10))
+                .plus(new SyncResult(0, 3, 2, 0, 0, 0))
+                .withDeleted(4);
+
+        assertEquals(new SyncResult(2, 4, 7, 1, 10, 4), result);
+        assertEquals(6, result.written());
+        assertEquals(13, result.processed());
+    }
+}
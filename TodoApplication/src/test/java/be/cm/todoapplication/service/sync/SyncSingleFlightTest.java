@@ -0,0 +1,54 @@
+package be.cm.todoapplication.service.sync;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour SyncSingleFlight
+ */
+@DisplayName("SyncSingleFlight Tests")
+class SyncSingleFlightTest {
+
+    private final SyncSingleFlight singleFlight = new SyncSingleFlight();
+
+    @Test
+    @DisplayName("Un déclenchement pendant un sync doit se rattacher au sync en cours")
+    void shouldAttachToRunningSync() {
+        AtomicInteger starts = new AtomicInteger();
+        CompletableFuture<String> sync = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.run(() -> { starts.incrementAndGet(); return sync; });
+        CompletableFuture<String> second = singleFlight.run(() -> { starts.incrementAndGet(); return new CompletableFuture<>(); });
+
+        assertTrue(singleFlight.isRunning());
+        sync.complete("batch-1");
+        assertEquals("batch-1", first.join());
+        assertEquals("batch-1", second.join());
+        assertEquals(1, starts.get());
+        assertFalse(singleFlight.isRunning());
+    }
+
+    @Test
+    @DisplayName("Doit lancer un nouveau sync une fois le précédent terminé")
+    void shouldStartNewSyncAfterCompletion() {
+        assertEquals("batch-1", singleFlight.run(() -> CompletableFuture.completedFuture("batch-1")).join());
+        assertEquals("batch-2", singleFlight.run(() -> CompletableFuture.completedFuture("batch-2")).join());
+    }
+
+    @Test
+    @DisplayName("Un échec au lancement doit libérer la place")
+    void shouldReleaseOnFailure() {
+        CompletableFuture<String> failed = singleFlight.run(() -> { throw new IllegalStateException("source indisponible"); });
+
+        CompletionException error = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertFalse(singleFlight.isRunning());
+        assertEquals("batch-2", singleFlight.run(() -> CompletableFuture.completedFuture("batch-2")).join());
+    }
+}
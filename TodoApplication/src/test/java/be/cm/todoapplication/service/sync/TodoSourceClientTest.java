@@ -0,0 +1,138 @@
+package be.cm.todoapplication.service.sync;
+
+import be.cm.todoapplication.dto.TodoDTO;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+/**
+ * Tests unitaires pour TodoSourceClient
+ */
+@DisplayName("TodoSourceClient Tests")
+class TodoSourceClientTest {
+
+    private static final String TODOS_URL = "http://source.test/todos";
+    private static final String USERS_URL = "http://source.test/users";
+    private static final String TODOS = "[{\"userId\":1,\"id\":1,\"title\":\"a\"},{\"userId\":1,\"id\":2,\"title\":\"b\"}]";
+    private static final String USERS = "[{\"id\":1,\"name\":\"Leanne\",\"username\":\"Bret\"}]";
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @TempDir
+    Path directory;
+
+    private static List<String> titles(JsonArrayReader<TodoDTO> todos) throws IOException {
+        List<String> titles = new ArrayList<>();
+        for (TodoDTO dto = todos.next(); dto != null; dto = todos.next()) {
+            titles.add(dto.getTitle());
+        }
+        return titles;
+    }
+
+    @Nested
+    @DisplayName("Requêtes conditionnelles")
+    class ConditionalTests {
+
+        private MockRestServiceServer server;
+        private TodoSourceClient client;
+
+        @BeforeEach
+        void setUp() {
+            RestTemplate restTemplate = new RestTemplate();
+            server = MockRestServiceServer.bindTo(restTemplate).build();
+            client = new TodoSourceClient(restTemplate, mapper, TODOS_URL, USERS_URL, directory.toString());
+        }
+
+        private HttpHeaders etag(String etag) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setETag(etag);
+            return headers;
+        }
+
+        @Test
+        @DisplayName("Doit renvoyer l'ETag reçu et ne rien lire sur 304")
+        void streamTodos_NotModified() {
+            server.expect(requestTo(TODOS_URL))
+                    .andRespond(withSuccess(TODOS, MediaType.APPLICATION_JSON).headers(etag("\"v1\"")));
+            server.expect(requestTo(TODOS_URL))
+                    .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                    .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+            Optional<List<String>> first = client.streamTodos(TodoSourceClientTest::titles, titles -> true);
+            Optional<List<String>> second = client.streamTodos(TodoSourceClientTest::titles, titles -> true);
+
+            assertEquals(Optional.of(List.of("a", "b")), first);
+            assertTrue(second.isEmpty());
+            assertTrue(Files.exists(directory.resolve("todos.json.gz")));
+            server.verify();
+        }
+
+        @Test
+        @DisplayName("Ne doit pas conserver les validateurs d'un sync incomplet")
+        void streamTodos_IncompleteSync() {
+            server.expect(requestTo(TODOS_URL))
+                    .andRespond(withSuccess(TODOS, MediaType.APPLICATION_JSON).headers(etag("\"v1\"")));
+            server.expect(requestTo(TODOS_URL))
+                    .andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+                    .andRespond(withSuccess(TODOS, MediaType.APPLICATION_JSON).headers(etag("\"v1\"")));
+
+            client.streamTodos(TodoSourceClientTest::titles, titles -> false);
+            Optional<List<String>> retry = client.streamTodos(TodoSourceClientTest::titles, titles -> true);
+
+            assertEquals(Optional.of(List.of("a", "b")), retry);
+            server.verify();
+        }
+
+        @Test
+        @DisplayName("Doit relire la copie locale des utilisateurs sur 304")
+        void fetchUsers_NotModifiedReadsCopy() {
+            HttpHeaders lastModified = new HttpHeaders();
+            lastModified.set(HttpHeaders.LAST_MODIFIED, "Wed, 14 Oct 2026 10:00:00 GMT");
+            server.expect(requestTo(USERS_URL))
+                    .andRespond(withSuccess(USERS, MediaType.APPLICATION_JSON).headers(lastModified));
+            server.expect(requestTo(USERS_URL))
+                    .andExpect(header(HttpHeaders.IF_MODIFIED_SINCE, "Wed, 14 Oct 2026 10:00:00 GMT"))
+                    .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+            assertEquals(Map.of(1L, "Bret"), client.fetchUsers());
+            assertEquals(Map.of(1L, "Bret"), client.fetchUsers());
+            server.verify();
+        }
+    }
+
+    @Test
+    @DisplayName("La source peut être un fichier local")
+    void fileUrls() throws IOException {
+        Path todos = Files.writeString(directory.resolve("source-todos.json"), TODOS);
+        Path users = Files.writeString(directory.resolve("source-users.json"), USERS);
+        TodoSourceClient client = new TodoSourceClient(mock(RestTemplate.class), mapper,
+                todos.toUri().toString(), users.toUri().toString(), directory.toString());
+
+        assertEquals(Optional.of(List.of("a", "b")),
+                client.streamTodos(TodoSourceClientTest::titles, titles -> true));
+        assertEquals(Map.of(1L, "Bret"), client.fetchUsers());
+    }
+}